@@ -4,18 +4,30 @@ import java.util.*;
 import java.text.SimpleDateFormat;
 /**
  * Classe que representa um Artigo.
+ * As palavras-chave são guardadas como identificadores no {@link Dicionario} de palavras-chave.
+ * Os métodos das visualizações, dos downloads e dos likes são sincronizados no próprio artigo, para que o uso possa
+ * ser registado (por exemplo, por {@link IngestaoUso}) enquanto outras threads o consultam. Quando o artigo pertence
+ * a uma base de dados, o uso registado passa pela base, que o escreve no seu registo de operações.
+ * O conjunto de autores nunca é alterado no próprio lugar: cada alteração publica um novo conjunto, com o monitor
+ * do artigo, pelo que os autores podem ser percorridos por outras threads (por exemplo, ao auditar ou guardar a base)
+ * sem bloqueios e sem {@link java.util.ConcurrentModificationException}.
  */
 public class Artigo {
+    static final byte VISUALIZACOES = 0;
+    static final byte DOWNLOADS = 1;
+    static final byte LIKES = 2;
+
     private String titulo;
-    private List<String> palavrasChave;
+    private int[] palavrasChave;
     private String resumo;
     private TipoPublicacao tipo;
     private Date data;
-    private int downloads;
-    private Map<Date, Integer> visualizacoes;
-    private Map<Date, Integer> likes;
-    private List<Autor> autores;
+    private SerieTemporal downloads;
+    private SerieTemporal visualizacoes;
+    private SerieTemporal likes;
+    private volatile Set<Autor> autores;
     private List<Artigo> referencias;
+    private volatile ObservadorArtigo observador;
 
     /**
      * Construtor da classe Artigo.
@@ -28,14 +40,14 @@ public class Artigo {
      */
     public Artigo(String titulo, List<String> palavrasChave, String resumo, TipoPublicacao tipo, Date data)  {
         this.titulo = titulo;
-        this.palavrasChave = palavrasChave;
+        setPalavrasChave(palavrasChave);
         this.resumo = resumo;
         this.tipo = tipo;
         this.data = data;
-        this.downloads = 0;
-        this.visualizacoes = new HashMap<>();
-        this.likes = new HashMap<>();
-        this.autores = new ArrayList<>();
+        this.downloads = new SerieTemporal();
+        this.visualizacoes = new SerieTemporal();
+        this.likes = new SerieTemporal();
+        this.autores = new LinkedHashSet<>();
         this.referencias = new ArrayList<>();
     }
 
@@ -59,11 +71,16 @@ public class Artigo {
 
     /**
      * Obtém as palavras-chave do artigo.
+     * A lista é construída a partir do dicionário partilhado, pelo que alterá-la não altera o artigo.
      *
      * @return uma lista de palavras-chave do artigo
      */
     public List<String> getPalavrasChave() {
-        return palavrasChave;
+        List<String> lista = new ArrayList<>(palavrasChave.length);
+        for (int id : palavrasChave) {
+            lista.add(Dicionario.PALAVRAS_CHAVE.simbolo(id));
+        }
+        return lista;
     }
 
     /**
@@ -72,7 +89,16 @@ public class Artigo {
      * @param palavrasChave uma nova lista de palavras-chave do artigo
      */
     public void setPalavrasChave(List<String> palavrasChave) {
-        this.palavrasChave = palavrasChave;
+        if (palavrasChave == null) {
+            this.palavrasChave = new int[0];
+            return;
+        }
+        int[] ids = new int[palavrasChave.size()];
+        int i = 0;
+        for (String palavra : palavrasChave) {
+            ids[i++] = Dicionario.PALAVRAS_CHAVE.identificador(palavra);
+        }
+        this.palavrasChave = ids;
     }
 
     /**
@@ -130,30 +156,66 @@ public class Artigo {
     }
 
     /**
-     * Obtém o número de downloads do artigo.
+     * Obtém o mapa de downloads do artigo por data.
+     * O mapa é uma cópia da série interna, com uma entrada por dia.
      *
-     * @return o número de downloads do artigo
+     * @return um mapa de datas e o número de downloads correspondentes
      */
-    public int getDownloads() {
-        return downloads;
+    public synchronized Map<Date, Integer> getDownloads() {
+        return downloads.paraMapa();
+    }
+
+    /**
+     * Define o mapa de downloads do artigo por data.
+     *
+     * @param downloads um novo mapa de datas e o número de downloads correspondentes
+     */
+    public void setDownloads(Map<Date, Integer> downloads) {
+        substituirUso(DOWNLOADS, SerieTemporal.deMapa(downloads));
     }
 
     /**
-     * Define o número de downloads do artigo.
+     * Regista downloads do artigo numa data.
      *
-     * @param downloads o novo número de downloads do artigo
+     * @param data       a data dos downloads
+     * @param quantidade o número de downloads
+     * @throws IllegalArgumentException se a quantidade for negativa
      */
-    public void setDownloads(int downloads) {
-        this.downloads = downloads;
+    public void registarDownloads(Date data, int quantidade) {
+        registarUso(DOWNLOADS, data, quantidade);
+    }
+
+    /**
+     * Conta os downloads do artigo num período, com resolução ao dia.
+     *
+     * @param inicio a data de início do período
+     * @param fim    a data de fim do período
+     * @return o número de downloads no período
+     */
+    public synchronized long contarDownloads(Date inicio, Date fim) {
+        return downloads.soma(inicio, fim);
+    }
+
+    /**
+     * Obtém os totais de downloads do artigo por dia, por mês ou por ano num período.
+     *
+     * @param granularidade o intervalo de agregação
+     * @param inicio        a data de início do período
+     * @param fim           a data de fim do período
+     * @return um mapa ordenado das datas de início de cada intervalo para o número de downloads
+     */
+    public synchronized SortedMap<Date, Long> agregarDownloads(Granularidade granularidade, Date inicio, Date fim) {
+        return downloads.agregar(granularidade, inicio, fim);
     }
 
     /**
      * Obtém o mapa de visualizações do artigo por data.
+     * O mapa é uma cópia da série interna, com uma entrada por dia.
      *
      * @return um mapa de datas e o número de visualizações correspondentes
      */
-    public Map<Date, Integer> getVisualizacoes() {
-        return visualizacoes;
+    public synchronized Map<Date, Integer> getVisualizacoes() {
+        return visualizacoes.paraMapa();
     }
 
     /**
@@ -162,16 +224,51 @@ public class Artigo {
      * @param visualizacoes um novo mapa de datas e o número de visualizações correspondentes
      */
     public void setVisualizacoes(Map<Date, Integer> visualizacoes) {
-        this.visualizacoes = visualizacoes;
+        substituirUso(VISUALIZACOES, SerieTemporal.deMapa(visualizacoes));
+    }
+
+    /**
+     * Regista visualizações do artigo numa data.
+     *
+     * @param data       a data das visualizações
+     * @param quantidade o número de visualizações
+     * @throws IllegalArgumentException se a quantidade for negativa
+     */
+    public void registarVisualizacoes(Date data, int quantidade) {
+        registarUso(VISUALIZACOES, data, quantidade);
+    }
+
+    /**
+     * Conta as visualizações do artigo num período, com resolução ao dia.
+     *
+     * @param inicio a data de início do período
+     * @param fim    a data de fim do período
+     * @return o número de visualizações no período
+     */
+    public synchronized long contarVisualizacoes(Date inicio, Date fim) {
+        return visualizacoes.soma(inicio, fim);
+    }
+
+    /**
+     * Obtém os totais de visualizações do artigo por dia, por mês ou por ano num período.
+     *
+     * @param granularidade o intervalo de agregação
+     * @param inicio        a data de início do período
+     * @param fim           a data de fim do período
+     * @return um mapa ordenado das datas de início de cada intervalo para o número de visualizações
+     */
+    public synchronized SortedMap<Date, Long> agregarVisualizacoes(Granularidade granularidade, Date inicio, Date fim) {
+        return visualizacoes.agregar(granularidade, inicio, fim);
     }
 
     /**
      * Obtém o mapa de likes do artigo por data.
+     * O mapa é uma cópia da série interna, com uma entrada por dia.
      *
      * @return um mapa de datas e o número de likes correspondentes
      */
-    public Map<Date, Integer> getLikes() {
-        return likes;
+    public synchronized Map<Date, Integer> getLikes() {
+        return likes.paraMapa();
     }
 
     /**
@@ -180,25 +277,237 @@ public class Artigo {
      * @param likes um novo mapa de datas e o número de likes correspondentes
      */
     public void setLikes(Map<Date, Integer> likes) {
-        this.likes = likes;
+        substituirUso(LIKES, SerieTemporal.deMapa(likes));
+    }
+
+    /**
+     * Regista likes do artigo numa data.
+     *
+     * @param data       a data dos likes
+     * @param quantidade o número de likes
+     * @throws IllegalArgumentException se a quantidade for negativa
+     */
+    public void registarLikes(Date data, int quantidade) {
+        registarUso(LIKES, data, quantidade);
+    }
+
+    /**
+     * Conta os likes do artigo num período, com resolução ao dia.
+     *
+     * @param inicio a data de início do período
+     * @param fim    a data de fim do período
+     * @return o número de likes no período
+     */
+    public synchronized long contarLikes(Date inicio, Date fim) {
+        return likes.soma(inicio, fim);
+    }
+
+    /**
+     * Obtém os totais de likes do artigo por dia, por mês ou por ano num período.
+     *
+     * @param granularidade o intervalo de agregação
+     * @param inicio        a data de início do período
+     * @param fim           a data de fim do período
+     * @return um mapa ordenado das datas de início de cada intervalo para o número de likes
+     */
+    public synchronized SortedMap<Date, Long> agregarLikes(Granularidade granularidade, Date inicio, Date fim) {
+        return likes.agregar(granularidade, inicio, fim);
+    }
+
+    /**
+     * Verifica se o artigo foi visualizado ou descarregado num período, com resolução ao dia.
+     *
+     * @param inicio a data de início do período
+     * @param fim    a data de fim do período
+     * @return true se houver visualizações ou downloads no período
+     */
+    public synchronized boolean foiVisualizadoOuDescarregado(Date inicio, Date fim) {
+        return visualizacoes.temRegistos(inicio, fim) || downloads.temRegistos(inicio, fim);
+    }
+
+    private void registarUso(byte tipo, Date data, int quantidade) {
+        if (quantidade < 0) {
+            throw new IllegalArgumentException("A quantidade não pode ser negativa: " + quantidade);
+        }
+        registarUso(new byte[]{tipo}, new long[]{SerieTemporal.dia(data)}, new int[]{quantidade}, 1, true);
+    }
+
+    /**
+     * Regista uso do artigo, somando cada quantidade ao dia indicado da série do tipo indicado. Se o artigo pertencer
+     * a uma base de dados, o registo é entregue ao observador, que o escreve no registo de operações da base e o
+     * aplica com {@link #aplicarUso(byte[], long[], int[], int)}; caso contrário é aplicado diretamente.
+     * Não pode ser chamado com o monitor do artigo, porque a base obtém o seu bloqueio antes do monitor.
+     *
+     * @param tipos       o tipo de cada registo ({@link #VISUALIZACOES}, {@link #DOWNLOADS} ou {@link #LIKES})
+     * @param dias        o número do dia de cada registo
+     * @param quantidades a quantidade de cada registo
+     * @param tamanho     o número de registos
+     * @param aguardar    true para esperar que o registo fique gravado em disco, conforme a durabilidade da base
+     */
+    void registarUso(byte[] tipos, long[] dias, int[] quantidades, int tamanho, boolean aguardar) {
+        ObservadorArtigo atual;
+        synchronized (this) {
+            atual = observador;
+            if (atual == null) {
+                aplicarUso(tipos, dias, quantidades, tamanho);
+                return;
+            }
+        }
+        atual.registarUso(this, tipos, dias, quantidades, tamanho, aguardar);
+    }
+
+    /**
+     * Aplica uso às séries do artigo. Quando uma visualização ou um download é o primeiro desse dia, o observador é
+     * notificado, para que a base possa marcar o artigo como usado nesse dia.
+     * Tem de ser chamado com o monitor do artigo.
+     *
+     * @param tipos       o tipo de cada registo
+     * @param dias        o número do dia de cada registo
+     * @param quantidades a quantidade de cada registo
+     * @param tamanho     o número de registos
+     */
+    void aplicarUso(byte[] tipos, long[] dias, int[] quantidades, int tamanho) {
+        for (int i = 0; i < tamanho; i++) {
+            if (getSerie(tipos[i]).registar(dias[i], quantidades[i]) && tipos[i] != LIKES && observador != null) {
+                observador.diaDeUsoRegistado(this, dias[i]);
+            }
+        }
+    }
+
+    /**
+     * Substitui uma das séries de uso do artigo, passando pelo observador como em
+     * {@link #registarUso(byte[], long[], int[], int, boolean)}.
+     */
+    private void substituirUso(byte tipo, SerieTemporal serie) {
+        ObservadorArtigo atual;
+        synchronized (this) {
+            atual = observador;
+            if (atual == null) {
+                aplicarSubstituicao(tipo, serie);
+                return;
+            }
+        }
+        atual.substituirUso(this, tipo, serie);
+    }
+
+    /**
+     * Substitui uma das séries de uso do artigo. Tem de ser chamado com o monitor do artigo.
+     *
+     * @param tipo  o tipo da série ({@link #VISUALIZACOES}, {@link #DOWNLOADS} ou {@link #LIKES})
+     * @param serie a nova série
+     */
+    void aplicarSubstituicao(byte tipo, SerieTemporal serie) {
+        SerieTemporal anterior = getSerie(tipo);
+        switch (tipo) {
+            case VISUALIZACOES:
+                this.visualizacoes = serie;
+                break;
+            case DOWNLOADS:
+                this.downloads = serie;
+                break;
+            default:
+                this.likes = serie;
+                return;
+        }
+        if (observador != null) {
+            observador.usoSubstituido(this, anterior);
+        }
+    }
+
+    /**
+     * Obtém a série temporal de um tipo de uso do artigo.
+     *
+     * @param tipo o tipo da série ({@link #VISUALIZACOES}, {@link #DOWNLOADS} ou {@link #LIKES})
+     * @return a série desse tipo
+     */
+    SerieTemporal getSerie(byte tipo) {
+        switch (tipo) {
+            case VISUALIZACOES:
+                return visualizacoes;
+            case DOWNLOADS:
+                return downloads;
+            default:
+                return likes;
+        }
+    }
+
+    /**
+     * Obtém a série temporal de downloads do artigo.
+     * As séries só podem ser lidas ou alteradas com o monitor do artigo.
+     *
+     * @return a série de downloads
+     */
+    SerieTemporal getSerieDownloads() {
+        return downloads;
+    }
+
+    /**
+     * Obtém a série temporal de visualizações do artigo.
+     *
+     * @return a série de visualizações
+     */
+    SerieTemporal getSerieVisualizacoes() {
+        return visualizacoes;
     }
 
     /**
-     * Obtém a lista de autores do artigo.
+     * Obtém a série temporal de likes do artigo.
+     *
+     * @return a série de likes
+     */
+    SerieTemporal getSerieLikes() {
+        return likes;
+    }
+
+    /**
+     * Obtém a lista de autores do artigo, pela ordem em que foram adicionados.
+     * A lista é uma cópia; para alterar os autores use {@link #adicionarAutor(Autor)} e {@link #removerAutor(Autor)}.
      *
      * @return uma lista de autores do artigo
      */
     public List<Autor> getAutores() {
-        return autores;
+        return new ArrayList<>(autores);
     }
 
     /**
-     * Define a lista de autores do artigo.
+     * Define a lista de autores do artigo. Tal como em {@link #adicionarAutor(Autor)} e {@link #removerAutor(Autor)},
+     * o artigo é retirado da lista de artigos dos autores que deixam de o ser e acrescentado à dos novos autores.
      *
      * @param autores uma nova lista de autores do artigo
      */
     public void setAutores(List<Autor> autores) {
-        this.autores = autores;
+        Set<Autor> anteriores;
+        Set<Autor> novos = new LinkedHashSet<>(autores);
+        synchronized (this) {
+            anteriores = this.autores;
+            this.autores = novos;
+        }
+        for (Autor autor : anteriores) {
+            if (!novos.contains(autor)) {
+                autor.removerAutor(this);
+            }
+        }
+        for (Autor autor : novos) {
+            autor.adicionarArtigo(this);
+        }
+        if (observador != null) {
+            for (Autor autor : anteriores) {
+                observador.autorRemovido(this, autor);
+            }
+            for (Autor autor : novos) {
+                observador.autorAdicionado(this, autor);
+            }
+        }
+    }
+
+    /**
+     * Verifica se um autor pertence ao artigo, em tempo constante.
+     *
+     * @param autor o autor
+     * @return true se o autor for um dos autores do artigo
+     */
+    public boolean contemAutor(Autor autor) {
+        return autores.contains(autor);
     }
 
     /**
@@ -225,17 +534,44 @@ public class Artigo {
      * @param autor o autor a ser adicionado
      */
     public void adicionarAutor(Autor autor) {
-        this.autores.add(autor);
+        synchronized (this) {
+            if (autores.contains(autor)) return;
+            Set<Autor> novos = new LinkedHashSet<>(autores);
+            novos.add(autor);
+            autores = novos;
+        }
         autor.adicionarArtigo(this);
+        if (observador != null) {
+            observador.autorAdicionado(this, autor);
+        }
     }
 
     /**
-     * Remove um autor da lista de autores do artigo.
+     * Remove um autor da lista de autores do artigo e o artigo da lista de artigos do autor.
      *
      * @param autor o autor a ser removido
      */
     public void removerAutor(Autor autor) {
-        this.autores.remove(autor);
+        synchronized (this) {
+            if (!autores.contains(autor)) return;
+            Set<Autor> novos = new LinkedHashSet<>(autores);
+            novos.remove(autor);
+            autores = novos;
+        }
+        autor.removerAutor(this);
+        if (observador != null) {
+            observador.autorRemovido(this, autor);
+        }
+    }
+
+    /**
+     * Define o observador notificado das alterações ao artigo. Um artigo só pode pertencer a uma base de dados
+     * de cada vez.
+     *
+     * @param observador o observador, ou null para deixar de notificar
+     */
+    synchronized void setObservador(ObservadorArtigo observador) {
+        this.observador = observador;
     }
 
     /**
@@ -0,0 +1,255 @@
+package Projeto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Árvore de pesquisa AVL persistente (imutável). Cada inserção ou remoção devolve uma nova árvore que copia apenas
+ * os O(log n) nós do caminho alterado e partilha todos os outros com a árvore anterior, pelo que guardar uma versão
+ * custa O(1) e as versões antigas continuam válidas e inalteradas enquanto houver referências para elas.
+ * Como nenhum nó é alterado depois de criado, uma versão pode ser lida por várias threads sem sincronização.
+ *
+ * @param <K> o tipo das chaves
+ * @param <V> o tipo dos valores
+ */
+final class ArvorePersistente<K extends Comparable<K>, V> {
+    private final No<K, V> raiz;
+
+    /**
+     * Nó imutável da árvore, com a altura e o tamanho da subárvore.
+     */
+    private static final class No<K, V> {
+        private final K chave;
+        private final V valor;
+        private final No<K, V> esquerda, direita;
+        private final int altura;
+        private final int tamanho;
+
+        No(K chave, V valor, No<K, V> esquerda, No<K, V> direita) {
+            this.chave = chave;
+            this.valor = valor;
+            this.esquerda = esquerda;
+            this.direita = direita;
+            this.altura = 1 + Math.max(altura(esquerda), altura(direita));
+            this.tamanho = 1 + tamanho(esquerda) + tamanho(direita);
+        }
+    }
+
+    /**
+     * Construtor da classe ArvorePersistente.
+     * Inicializa uma árvore vazia.
+     */
+    ArvorePersistente() {
+        this(null);
+    }
+
+    private ArvorePersistente(No<K, V> raiz) {
+        this.raiz = raiz;
+    }
+
+    /**
+     * Constrói uma árvore equilibrada com as entradas de um mapa ordenado, em O(n), sem as rotações nem as cópias
+     * de caminho de n inserções. É usado nas cargas em massa.
+     *
+     * @param mapa o mapa ordenado pelas chaves, pela ordem natural
+     * @param <K>  o tipo das chaves
+     * @param <V>  o tipo dos valores
+     * @return uma nova árvore com as mesmas entradas do mapa
+     */
+    static <K extends Comparable<K>, V> ArvorePersistente<K, V> deOrdenados(SortedMap<K, V> mapa) {
+        List<Map.Entry<K, V>> entradas = new ArrayList<>(mapa.entrySet());
+        return new ArvorePersistente<>(construir(entradas, 0, entradas.size() - 1));
+    }
+
+    /**
+     * Obtém o número de entradas da árvore.
+     *
+     * @return o número de chaves
+     */
+    int tamanho() {
+        return tamanho(raiz);
+    }
+
+    /**
+     * Verifica se a árvore não tem entradas.
+     *
+     * @return true se a árvore estiver vazia
+     */
+    boolean vazia() {
+        return raiz == null;
+    }
+
+    /**
+     * Obtém o valor associado a uma chave.
+     *
+     * @param chave a chave
+     * @return o valor associado, ou null se a chave não existir
+     */
+    V obter(K chave) {
+        No<K, V> x = raiz;
+        while (x != null) {
+            int cmp = chave.compareTo(x.chave);
+            if (cmp == 0) return x.valor;
+            x = cmp < 0 ? x.esquerda : x.direita;
+        }
+        return null;
+    }
+
+    /**
+     * Obtém uma nova versão da árvore com a chave associada ao valor indicado. Esta árvore não é alterada.
+     *
+     * @param chave a chave
+     * @param valor o valor
+     * @return a nova versão da árvore
+     */
+    ArvorePersistente<K, V> inserir(K chave, V valor) {
+        No<K, V> novaRaiz = inserir(raiz, chave, valor);
+        return novaRaiz == raiz ? this : new ArvorePersistente<>(novaRaiz);
+    }
+
+    /**
+     * Obtém uma nova versão da árvore sem a chave indicada. Esta árvore não é alterada.
+     *
+     * @param chave a chave a remover
+     * @return a nova versão da árvore, ou esta árvore se a chave não existir
+     */
+    ArvorePersistente<K, V> remover(K chave) {
+        No<K, V> novaRaiz = remover(raiz, chave);
+        return novaRaiz == raiz ? this : new ArvorePersistente<>(novaRaiz);
+    }
+
+    /**
+     * Obtém todos os valores, por ordem crescente das chaves.
+     *
+     * @return uma nova lista com os valores
+     */
+    List<V> valores() {
+        return valores(null, null);
+    }
+
+    /**
+     * Obtém os valores cujas chaves estão entre dois limites, inclusive, por ordem crescente das chaves.
+     * Só são visitados os nós do intervalo e os do caminho até eles.
+     *
+     * @param de  o limite inferior, ou null para não limitar
+     * @param ate o limite superior, ou null para não limitar
+     * @return uma nova lista com os valores do intervalo
+     */
+    List<V> valores(K de, K ate) {
+        List<V> resultado = new ArrayList<>();
+        percorrer(de, ate, (chave, valor) -> resultado.add(valor));
+        return resultado;
+    }
+
+    /**
+     * Percorre as entradas cujas chaves estão entre dois limites, inclusive, por ordem crescente das chaves.
+     *
+     * @param de   o limite inferior, ou null para não limitar
+     * @param ate  o limite superior, ou null para não limitar
+     * @param acao a ação a executar para cada chave e valor
+     */
+    void percorrer(K de, K ate, BiConsumer<? super K, ? super V> acao) {
+        percorrer(raiz, de, ate, acao);
+    }
+
+    private static int altura(No<?, ?> x) {
+        return x == null ? 0 : x.altura;
+    }
+
+    private static int tamanho(No<?, ?> x) {
+        return x == null ? 0 : x.tamanho;
+    }
+
+    /**
+     * Constrói uma subárvore perfeitamente equilibrada com as entradas entre duas posições, inclusive.
+     */
+    private static <K, V> No<K, V> construir(List<Map.Entry<K, V>> entradas, int de, int ate) {
+        if (de > ate) return null;
+        int meio = (de + ate) >>> 1;
+        Map.Entry<K, V> entrada = entradas.get(meio);
+        return new No<>(entrada.getKey(), entrada.getValue(),
+                construir(entradas, de, meio - 1), construir(entradas, meio + 1, ate));
+    }
+
+    private static <K extends Comparable<K>, V> No<K, V> inserir(No<K, V> x, K chave, V valor) {
+        if (x == null) return new No<>(chave, valor, null, null);
+        int cmp = chave.compareTo(x.chave);
+        if (cmp < 0) return equilibrar(x.chave, x.valor, inserir(x.esquerda, chave, valor), x.direita);
+        if (cmp > 0) return equilibrar(x.chave, x.valor, x.esquerda, inserir(x.direita, chave, valor));
+        return x.valor == valor ? x : new No<>(x.chave, valor, x.esquerda, x.direita);
+    }
+
+    private static <K extends Comparable<K>, V> No<K, V> remover(No<K, V> x, K chave) {
+        if (x == null) return null;
+        int cmp = chave.compareTo(x.chave);
+        if (cmp < 0) {
+            No<K, V> esquerda = remover(x.esquerda, chave);
+            return esquerda == x.esquerda ? x : equilibrar(x.chave, x.valor, esquerda, x.direita);
+        }
+        if (cmp > 0) {
+            No<K, V> direita = remover(x.direita, chave);
+            return direita == x.direita ? x : equilibrar(x.chave, x.valor, x.esquerda, direita);
+        }
+        if (x.esquerda == null) return x.direita;
+        if (x.direita == null) return x.esquerda;
+        No<K, V> sucessor = x.direita;
+        while (sucessor.esquerda != null) {
+            sucessor = sucessor.esquerda;
+        }
+        return equilibrar(sucessor.chave, sucessor.valor, x.esquerda, removerMinimo(x.direita));
+    }
+
+    private static <K extends Comparable<K>, V> No<K, V> removerMinimo(No<K, V> x) {
+        if (x.esquerda == null) return x.direita;
+        return equilibrar(x.chave, x.valor, removerMinimo(x.esquerda), x.direita);
+    }
+
+    /**
+     * Cria um nó a partir de duas subárvores cujas alturas diferem no máximo de 2, com as rotações necessárias
+     * para repor o equilíbrio AVL. As rotações criam nós novos em vez de alterar os existentes.
+     */
+    private static <K, V> No<K, V> equilibrar(K chave, V valor, No<K, V> esquerda, No<K, V> direita) {
+        int alturaEsquerda = altura(esquerda);
+        int alturaDireita = altura(direita);
+        if (alturaEsquerda > alturaDireita + 1) {
+            if (altura(esquerda.esquerda) >= altura(esquerda.direita)) {
+                return new No<>(esquerda.chave, esquerda.valor, esquerda.esquerda,
+                        new No<>(chave, valor, esquerda.direita, direita));
+            }
+            No<K, V> meio = esquerda.direita;
+            return new No<>(meio.chave, meio.valor,
+                    new No<>(esquerda.chave, esquerda.valor, esquerda.esquerda, meio.esquerda),
+                    new No<>(chave, valor, meio.direita, direita));
+        }
+        if (alturaDireita > alturaEsquerda + 1) {
+            if (altura(direita.direita) >= altura(direita.esquerda)) {
+                return new No<>(direita.chave, direita.valor,
+                        new No<>(chave, valor, esquerda, direita.esquerda), direita.direita);
+            }
+            No<K, V> meio = direita.esquerda;
+            return new No<>(meio.chave, meio.valor,
+                    new No<>(chave, valor, esquerda, meio.esquerda),
+                    new No<>(direita.chave, direita.valor, meio.direita, direita.direita));
+        }
+        return new No<>(chave, valor, esquerda, direita);
+    }
+
+    private static <K extends Comparable<K>, V> void percorrer(No<K, V> x, K de, K ate,
+                                                               BiConsumer<? super K, ? super V> acao) {
+        if (x == null) return;
+        int cmpInicio = de == null ? 1 : x.chave.compareTo(de);
+        int cmpFim = ate == null ? -1 : x.chave.compareTo(ate);
+        if (cmpInicio > 0) {
+            percorrer(x.esquerda, de, ate, acao);
+        }
+        if (cmpInicio >= 0 && cmpFim <= 0) {
+            acao.accept(x.chave, x.valor);
+        }
+        if (cmpFim < 0) {
+            percorrer(x.direita, de, ate, acao);
+        }
+    }
+}
@@ -1,19 +1,24 @@
 package Projeto;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 /**
  * Classe que representa um Autor.
+ * A filiação é guardada como identificador no {@link Dicionario} de filiações e o ORCID, quando está no
+ * formato canónico, é guardado na forma compacta de 64 bits de {@link Orcid}.
  */
 public class Autor {
     private String nome;
     private String nomeCientifico;
-    private String filiacao;
+    private int filiacao;
+    private long orcidCompacto;
     private String orcid;
     private String cienciaID;
     private String googleScholarID;
     private String scopusAutorID;
-    private List<Artigo> artigos;
+    private Set<Artigo> artigos;
     /**
      * Construtor para a classe Autor.
      *
@@ -28,12 +33,12 @@ public class Autor {
     public Autor(String nome, String nomeCientifico, String filiacao, String orcid, String cienciaID, String googleScholarID, String scopusAutorID) {
         this.nome = nome;
         this.nomeCientifico = nomeCientifico;
-        this.filiacao = filiacao;
-        this.orcid = orcid;
+        setFiliacao(filiacao);
+        setOrcid(orcid);
         this.cienciaID = cienciaID;
         this.googleScholarID = googleScholarID;
         this.scopusAutorID = scopusAutorID;
-        this.artigos = new ArrayList<>();
+        this.artigos = new LinkedHashSet<>();
     }
     /**
      * Obtém o nome do autor.
@@ -77,7 +82,7 @@ public class Autor {
      * @return A filiação do autor.
      */
     public String getFiliacao() {
-        return filiacao;
+        return Dicionario.FILIACOES.simbolo(filiacao);
     }
 
     /**
@@ -86,7 +91,7 @@ public class Autor {
      * @param filiacao A nova filiação do autor.
      */
     public void setFiliacao(String filiacao) {
-        this.filiacao = filiacao;
+        this.filiacao = Dicionario.FILIACOES.identificador(filiacao);
     }
 
     /**
@@ -95,7 +100,7 @@ public class Autor {
      * @return O ORCID do autor.
      */
     public String getOrcid() {
-        return orcid;
+        return orcidCompacto != Orcid.INVALIDO ? Orcid.expandir(orcidCompacto) : orcid;
     }
 
     /**
@@ -104,7 +109,8 @@ public class Autor {
      * @param orcid O novo ORCID do autor.
      */
     public void setOrcid(String orcid) {
-        this.orcid = orcid;
+        this.orcidCompacto = Orcid.compactar(orcid);
+        this.orcid = orcidCompacto != Orcid.INVALIDO ? null : orcid;
     }
 
     /**
@@ -162,12 +168,13 @@ public class Autor {
     }
 
     /**
-     * Obtém a lista de artigos do autor.
+     * Obtém a lista de artigos do autor, pela ordem em que foram adicionados.
+     * A lista é uma cópia, pelo que alterá-la não altera o autor.
      *
      * @return A lista de artigos do autor.
      */
     public List<Artigo> getArtigos() {
-        return artigos;
+        return new ArrayList<>(artigos);
     }
 
     /**
@@ -176,7 +183,26 @@ public class Autor {
      * @param artigos A nova lista de artigos do autor.
      */
     public void setArtigos(List<Artigo> artigos) {
-        this.artigos = artigos;
+        this.artigos = new LinkedHashSet<>(artigos);
+    }
+
+    /**
+     * Verifica se um artigo pertence ao autor, em tempo constante.
+     *
+     * @param artigo O artigo.
+     * @return true se o artigo for um dos artigos do autor.
+     */
+    public boolean contemArtigo(Artigo artigo) {
+        return artigos.contains(artigo);
+    }
+
+    /**
+     * Obtém o número de artigos do autor.
+     *
+     * @return O número de artigos do autor.
+     */
+    public int getNArtigos() {
+        return artigos.size();
     }
 
     /**
@@ -204,7 +230,7 @@ public class Autor {
      */
     @Override
     public String toString() {
-        return "Autor{" + "nome:" + nome + "\t" + "filiacao:" + filiacao + '}';
+        return "Autor{" + "nome:" + nome + "\t" + "filiacao:" + getFiliacao() + '}';
     }
 
 }
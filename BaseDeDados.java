@@ -1,44 +1,485 @@
 package Projeto;
 
-import edu.princeton.cs.algs4.*;
-
 import java.util.*;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Classe que representa uma base de dados de artigos e autores.
  * Utiliza diferentes estruturas de dados para organizar e gerenciar os artigos e autores.
+ * Quando aberta com {@link #abrir(Path, Durabilidade)}, todas as alterações são escritas num registo de
+ * operações, pela ordem em que são aplicadas, para poderem ser recuperadas após uma falha. Isto inclui as alterações
+ * feitas diretamente aos artigos da base que a base indexa: os autores de um artigo e o seu uso.
+ *
+ * <p>A base pode ser usada por várias threads. As alterações são feitas com um bloqueio de escrita, que mantém
+ * os vários índices consistentes entre si. As procuras por título e por identificador leem diretamente índices
+ * concorrentes, sem bloqueios; as consultas que combinam vários índices ou percorrem intervalos usam leituras
+ * otimistas, validadas no fim e repetidas com o bloqueio de leitura apenas se uma escrita ocorreu entretanto.</p>
+ *
+ * <p>Para análises demoradas, {@link #abrirSnapshot()} devolve uma versão só de leitura da base num instante.
+ * Além dos índices concorrentes, cada escrita atualiza cópias persistentes dos índices principais, publicadas como
+ * uma nova versão quando a escrita termina.</p>
  */
 public class BaseDeDados {
-    private RedBlackBST<Date, Artigo> artigosPorData;
-    private RedBlackBST<String, Autor> autoresPorNome;
-    private HashMap<String, Artigo> artigosPorTitulo;
-    private HashMap<String, Autor> autoresPorID;
+    private static final String FICHEIRO_SNAPSHOT = "base.snapshot";
+    private static final String FICHEIRO_REGISTO = "base.log";
+    private static final long LIMITE_COMPACTACAO_PREDEFINIDO = 64L << 20;
+
+    private ConcurrentSkipListMap<ChaveTemporal, Artigo> artigosPorData;
+    private ConcurrentSkipListMap<String, Autor> autoresPorNome;
+    private ConcurrentHashMap<String, Artigo> artigosPorTitulo;
+    private ConcurrentHashMap<String, Autor> autoresPorID;
+    private EnumMap<TipoIdentificador, ConcurrentHashMap<String, Autor>> autoresPorIdentificadorExterno;
     private HashMap<String, String> autoresArquivados;
+    private HashMap<Artigo, ChaveTemporal> chavesArtigos;
+    private ConcurrentHashMap<String, ConcurrentSkipListMap<ChaveTemporal, Artigo>> artigosPorAutor;
+    private long proximoIdArtigo;
+    private VerificadorConsistencia verificador;
+    private IndiceTextual indiceTextual;
+    private IndiceNomes indiceNomes;
+    private IndiceUso indiceUso;
+    private ObservadorArtigo observador;
+    private RegistoOperacoes registo;
+    private Path diretorioRegisto;
+    private long limiteCompactacao;
+    private long ultimaOperacao;
+    private boolean emAlteracao;
+    private final StampedLock bloqueio;
+    private volatile Thread escritor;
+    private ArvorePersistente<ChaveTemporal, Artigo> versaoArtigosPorData;
+    private ArvorePersistente<String, Autor> versaoAutoresPorNome;
+    private ArvorePersistente<String, Artigo> versaoArtigosPorTitulo;
+    private ArvorePersistente<String, Autor> versaoAutoresPorID;
+    private ArvorePersistente<String, ArvorePersistente<ChaveTemporal, Artigo>> versaoArtigosPorAutor;
+    private ArvorePersistente<String, List<Autor>> versaoAutoresPorArtigo;
+    private boolean versaoPorPublicar;
+    private volatile VersaoBaseDeDados versao;
 
     /**
      * Construtor da classe BaseDeDados.
      * Inicializa as estruturas de dados utilizadas para armazenar artigos e autores.
      */
     public BaseDeDados() {
-        this.artigosPorData = new RedBlackBST<>();
-        this.autoresPorNome = new RedBlackBST<>();
-        this.artigosPorTitulo = new HashMap<>();
-        this.autoresPorID = new HashMap<>();
+        this.artigosPorData = new ConcurrentSkipListMap<>();
+        this.autoresPorNome = new ConcurrentSkipListMap<>();
+        this.artigosPorTitulo = new ConcurrentHashMap<>();
+        this.autoresPorID = new ConcurrentHashMap<>();
+        this.autoresPorIdentificadorExterno = new EnumMap<>(TipoIdentificador.class);
+        for (TipoIdentificador tipo : TipoIdentificador.values()) {
+            if (tipo != TipoIdentificador.ORCID) {
+                autoresPorIdentificadorExterno.put(tipo, new ConcurrentHashMap<>());
+            }
+        }
         this.autoresArquivados = new HashMap<>();
+        this.chavesArtigos = new HashMap<>();
+        this.artigosPorAutor = new ConcurrentHashMap<>();
+        this.proximoIdArtigo = 0;
+        this.verificador = new VerificadorConsistencia();
+        this.indiceTextual = new IndiceTextual();
+        this.indiceNomes = new IndiceNomes();
+        this.indiceUso = new IndiceUso();
+        this.observador = new ObservadorArtigo() {
+            @Override
+            public void autorAdicionado(Artigo artigo, Autor autor) {
+                alterar(r -> chavesArtigos.containsKey(artigo) ? r.adicionarAutorArtigo(artigo.getTitulo(), autor) : -1,
+                        () -> {
+                            ChaveTemporal chave = chavesArtigos.get(artigo);
+                            if (chave != null) {
+                                indexarAutor(autor, artigo, chave);
+                                versionarAutores(artigo);
+                            }
+                        });
+            }
+
+            @Override
+            public void autorRemovido(Artigo artigo, Autor autor) {
+                alterar(r -> chavesArtigos.containsKey(artigo)
+                                ? r.removerAutorArtigo(artigo.getTitulo(), autor.getOrcid()) : -1,
+                        () -> {
+                            ChaveTemporal chave = chavesArtigos.get(artigo);
+                            if (chave != null) {
+                                desindexarAutor(autor, chave);
+                                versionarAutores(artigo);
+                            }
+                        });
+            }
+
+            @Override
+            public void registarUso(Artigo artigo, byte[] tipos, long[] dias, int[] quantidades, int tamanho,
+                                    boolean aguardar) {
+                alterar(r -> chavesArtigos.containsKey(artigo)
+                                ? r.registarUso(artigo.getTitulo(), tipos, dias, quantidades, tamanho) : -1,
+                        () -> {
+                            synchronized (artigo) {
+                                artigo.aplicarUso(tipos, dias, quantidades, tamanho);
+                            }
+                        }, aguardar);
+            }
+
+            @Override
+            public void substituirUso(Artigo artigo, byte tipo, SerieTemporal serie) {
+                alterar(r -> chavesArtigos.containsKey(artigo) ? r.substituirUso(artigo.getTitulo(), tipo, serie) : -1,
+                        () -> {
+                            synchronized (artigo) {
+                                artigo.aplicarSubstituicao(tipo, serie);
+                            }
+                        });
+            }
+
+            @Override
+            public void diaDeUsoRegistado(Artigo artigo, long dia) {
+                indiceUso.usado(artigo, dia);
+            }
+
+            @Override
+            public void usoSubstituido(Artigo artigo, SerieTemporal anterior) {
+                indiceUso.substituir(artigo, IndiceUso.dias(anterior), IndiceUso.diasComUso(artigo));
+            }
+        };
+        this.limiteCompactacao = LIMITE_COMPACTACAO_PREDEFINIDO;
+        this.bloqueio = new StampedLock();
+        this.versaoArtigosPorData = new ArvorePersistente<>();
+        this.versaoAutoresPorNome = new ArvorePersistente<>();
+        this.versaoArtigosPorTitulo = new ArvorePersistente<>();
+        this.versaoAutoresPorID = new ArvorePersistente<>();
+        this.versaoArtigosPorAutor = new ArvorePersistente<>();
+        this.versaoAutoresPorArtigo = new ArvorePersistente<>();
+        this.versaoPorPublicar = true;
+        publicarVersao();
+    }
+
+    /**
+     * Abre uma base de dados persistente num diretório. Carrega o último snapshot, se existir, reaplica as
+     * operações do registo posteriores a esse snapshot e passa a registar todas as alterações seguintes.
+     *
+     * @param diretorio    o diretório onde ficam o snapshot e o registo de operações
+     * @param durabilidade o nível de durabilidade do registo
+     * @return a base de dados recuperada
+     * @throws IOException se não for possível ler ou criar os ficheiros
+     */
+    public static BaseDeDados abrir(Path diretorio, Durabilidade durabilidade) throws IOException {
+        Files.createDirectories(diretorio);
+        Path snapshot = diretorio.resolve(FICHEIRO_SNAPSHOT);
+        BaseDeDados base = Files.exists(snapshot) ? carregarSnapshot(snapshot) : new BaseDeDados();
+        Path ficheiroRegisto = diretorio.resolve(FICHEIRO_REGISTO);
+        long[] recuperado = RegistoOperacoes.reproduzir(ficheiroRegisto, base, base.ultimaOperacao);
+        base.registo = new RegistoOperacoes(ficheiroRegisto, durabilidade, recuperado[0], recuperado[1]);
+        base.diretorioRegisto = diretorio;
+        base.publicarVersao();
+        return base;
+    }
+
+    /**
+     * Incorpora o registo de operações num novo snapshot e esvazia o registo.
+     * É chamado automaticamente quando o registo ultrapassa o limite de compactação.
+     *
+     * @throws IOException se ocorrer um erro ao escrever o snapshot ou o registo
+     */
+    public void compactar() throws IOException {
+        if (registo == null) {
+            throw new IllegalStateException("A base de dados não tem registo de operações");
+        }
+        long stamp = bloquearEscrita();
+        try {
+            registo.sincronizar();
+            guardarSnapshot(diretorioRegisto.resolve(FICHEIRO_SNAPSHOT));
+            registo.truncar();
+        } finally {
+            desbloquearEscrita(stamp);
+        }
+    }
+
+    /**
+     * Define o tamanho do registo de operações a partir do qual é feita uma compactação automática.
+     *
+     * @param bytes o tamanho máximo do registo, em bytes
+     */
+    public void setLimiteCompactacao(long bytes) {
+        this.limiteCompactacao = bytes;
+    }
+
+    /**
+     * Grava em disco as operações pendentes e fecha o registo de operações.
+     *
+     * @throws IOException se ocorrer um erro de escrita
+     */
+    public void fecharRegisto() throws IOException {
+        long stamp = bloquearEscrita();
+        try {
+            if (registo != null) {
+                registo.close();
+                ultimaOperacao = registo.ultimaOperacao();
+                registo = null;
+            }
+        } finally {
+            desbloquearEscrita(stamp);
+        }
+    }
+
+    /**
+     * Obtém o número de sequência da última operação registada ou incorporada no snapshot carregado.
+     *
+     * @return o número de sequência da última operação
+     */
+    long getUltimaOperacao() {
+        return registo != null ? registo.ultimaOperacao() : ultimaOperacao;
+    }
+
+    /**
+     * Define o número de sequência da última operação incorporada no snapshot carregado.
+     *
+     * @param ultimaOperacao o número de sequência
+     */
+    void setUltimaOperacao(long ultimaOperacao) {
+        this.ultimaOperacao = ultimaOperacao;
+    }
+
+    /**
+     * Aplica e regista uma alteração com o bloqueio de escrita, para que os índices sejam alterados em conjunto e
+     * pela mesma ordem das operações no registo. A operação só é escrita no registo depois de aplicada com sucesso,
+     * pelo que uma alteração rejeitada nunca fica no registo para falhar em todas as recuperações seguintes.
+     * A espera pela gravação em disco é feita já sem o bloqueio, para que as escritas concorrentes se juntem na
+     * mesma sincronização.
+     *
+     * @param operacao  a escrita da alteração no registo de operações
+     * @param aplicacao a aplicação da alteração aos índices
+     */
+    private void alterar(OperacaoRegistada operacao, Runnable aplicacao) {
+        alterar(operacao, aplicacao, true);
+    }
+
+    /**
+     * Aplica e regista uma alteração, como {@link #alterar(OperacaoRegistada, Runnable)}.
+     * Uma alteração feita durante a aplicação de outra (por exemplo, a remoção de um autor dos seus artigos quando o
+     * autor é removido) é consequência dessa outra, que a volta a produzir quando é reproduzida, pelo que não é
+     * registada à parte.
+     *
+     * @param operacao  a escrita da alteração no registo de operações; pode devolver -1 para não registar nada
+     * @param aplicacao a aplicação da alteração aos índices
+     * @param aguardar  true para esperar que a operação fique gravada em disco, conforme a durabilidade do registo
+     */
+    private void alterar(OperacaoRegistada operacao, Runnable aplicacao, boolean aguardar) {
+        long operacaoRegistada;
+        long stamp = bloquearEscrita();
+        try {
+            boolean derivada = emAlteracao;
+            emAlteracao = true;
+            try {
+                aplicacao.run();
+            } finally {
+                emAlteracao = derivada;
+            }
+            if (derivada) return;
+            operacaoRegistada = registar(operacao);
+        } finally {
+            desbloquearEscrita(stamp);
+        }
+        if (aguardar) {
+            aguardar(operacaoRegistada);
+        }
+        verificarCompactacao();
     }
 
     /**
-     * Adiciona um artigo à base de dados.
+     * Escreve uma operação no registo, se existir, depois de ser aplicada.
+     *
+     * @return o número de sequência da operação, ou -1 se a base não tiver registo
+     */
+    private long registar(OperacaoRegistada operacao) {
+        if (registo == null) return -1;
+        try {
+            return operacao.escrever(registo);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível registar a operação", e);
+        }
+    }
+
+    /**
+     * Espera que uma operação registada fique gravada em disco, conforme a durabilidade do registo.
+     */
+    private void aguardar(long operacao) {
+        RegistoOperacoes atual = registo;
+        if (atual == null || operacao < 0) return;
+        try {
+            atual.aguardar(operacao);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível gravar a operação", e);
+        }
+    }
+
+    /**
+     * Compacta o registo se tiver ultrapassado o limite definido.
+     */
+    private void verificarCompactacao() {
+        RegistoOperacoes atual = registo;
+        if (atual != null && atual.tamanho() > limiteCompactacao) {
+            long stamp = bloquearEscrita();
+            try {
+                if (registo != null && registo.tamanho() > limiteCompactacao) {
+                    compactar();
+                }
+            } catch (IOException e) {
+                System.err.println("Ocorreu um erro ao compactar o registo de operações: " + e.getMessage());
+            } finally {
+                desbloquearEscrita(stamp);
+            }
+        }
+    }
+
+    /**
+     * Obtém o bloqueio de escrita. Se a thread atual já o tiver, não volta a bloquear e devolve 0, o que permite
+     * que as notificações de um artigo alterado durante uma escrita sejam aplicadas pela própria escrita.
+     */
+    private long bloquearEscrita() {
+        if (escritor == Thread.currentThread()) return 0;
+        long stamp = bloqueio.writeLock();
+        escritor = Thread.currentThread();
+        return stamp;
+    }
+
+    /**
+     * Liberta o bloqueio de escrita, publicando antes a versão com as alterações feitas enquanto estava obtido.
+     */
+    private void desbloquearEscrita(long stamp) {
+        if (stamp == 0) return;
+        publicarVersao();
+        escritor = null;
+        bloqueio.unlockWrite(stamp);
+    }
+
+    /**
+     * Obtém o bloqueio de leitura, exceto se a thread atual já tiver o bloqueio de escrita (devolve então 0).
+     */
+    private long bloquearLeitura() {
+        return escritor == Thread.currentThread() ? 0 : bloqueio.readLock();
+    }
+
+    private void desbloquearLeitura(long stamp) {
+        if (stamp != 0) {
+            bloqueio.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Executa uma leitura com o bloqueio de leitura.
+     */
+    private <T> T ler(Supplier<T> leitura) {
+        long stamp = bloquearLeitura();
+        try {
+            return leitura.get();
+        } finally {
+            desbloquearLeitura(stamp);
+        }
+    }
+
+    /**
+     * Executa uma leitura sem bloqueios e valida no fim que nenhuma escrita ocorreu entretanto; se ocorreu, a
+     * leitura é repetida com o bloqueio de leitura. Só as leituras que percorrem os índices concorrentes (os mapas
+     * por data, nome, título, identificador e autor) e os índices sincronizados podem ser otimistas: sobrepostas a
+     * uma escrita, veem esses índices num estado intermédio mas não falham. Os restantes campos, como
+     * {@code chavesArtigos} ou {@code autoresArquivados}, não são concorrentes e só podem ser lidos com o bloqueio.
+     * Por precaução, uma leitura otimista que falhe durante uma escrita também é repetida com o bloqueio.
+     */
+    private <T> T lerOtimista(Supplier<T> leitura) {
+        long stamp = bloqueio.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T resultado = leitura.get();
+                if (bloqueio.validate(stamp)) {
+                    return resultado;
+                }
+            } catch (RuntimeException e) {
+                if (bloqueio.validate(stamp)) throw e;
+            }
+        }
+        return ler(leitura);
+    }
+
+    /**
+     * Abre uma versão só de leitura da base no estado atual, em O(1). A versão não é afetada pelas alterações
+     * seguintes e pode ser consultada durante o tempo que for preciso sem atrasar as escritas; as alterações em
+     * curso, como a remoção e a adição que compõem uma edição, ou estão todas na versão ou não está nenhuma.
+     *
+     * @return a versão atual da base
+     */
+    public VersaoBaseDeDados abrirSnapshot() {
+        return versao;
+    }
+
+    /**
+     * Publica as cópias persistentes dos índices como a versão atual, se tiverem mudado desde a última publicação.
+     * É chamado com o bloqueio de escrita ou antes de a base ser partilhada.
+     */
+    private void publicarVersao() {
+        if (!versaoPorPublicar) return;
+        long numero = versao == null ? 0 : versao.getNumero() + 1;
+        versao = new VersaoBaseDeDados(numero, versaoArtigosPorData, versaoAutoresPorNome, versaoArtigosPorTitulo,
+                versaoAutoresPorID, versaoArtigosPorAutor, versaoAutoresPorArtigo);
+        versaoPorPublicar = false;
+    }
+
+    /**
+     * Operação que pode ser escrita no registo de operações.
+     */
+    private interface OperacaoRegistada {
+        long escrever(RegistoOperacoes registo) throws IOException;
+    }
+
+    /**
+     * Adiciona um artigo à base de dados. O título identifica o artigo na base, pelo que um artigo diferente com o
+     * mesmo título que já esteja na base é removido de todos os índices e substituído pelo novo.
      *
      * @param artigo o artigo a ser adicionado
      */
     public void adicionarArtigo(Artigo artigo){
-        artigosPorData.put(artigo.getData(),artigo);
+        validarArtigo(artigo);
+        alterar(r -> r.adicionarArtigo(artigo), () -> aplicarAdicionarArtigo(artigo));
+    }
+
+    /**
+     * Aplica a adição de um artigo sem a escrever no registo de operações.
+     *
+     * @param artigo o artigo a ser adicionado
+     */
+    void aplicarAdicionarArtigo(Artigo artigo) {
+        Artigo anterior = artigosPorTitulo.get(artigo.getTitulo());
+        if (anterior != null && anterior != artigo) {
+            aplicarRemoverArtigo(artigo.getTitulo());
+        }
+        ChaveTemporal chave = chavesArtigos.get(artigo);
+        if (chave == null) {
+            // O número do artigo identifica-o no índice de uso, que só aceita inteiros não negativos
+            if (proximoIdArtigo > Integer.MAX_VALUE) {
+                throw new IllegalStateException("A base de dados esgotou os números de artigo");
+            }
+            chave = new ChaveTemporal(artigo.getData(), proximoIdArtigo++);
+            chavesArtigos.put(artigo, chave);
+            artigosPorData.put(chave,artigo);
+            versaoArtigosPorData = versaoArtigosPorData.inserir(chave, artigo);
+            for (Autor autor : artigo.getAutores()) {
+                indexarAutor(autor, artigo, chave);
+            }
+            versionarAutores(artigo);
+            synchronized (artigo) {
+                artigo.setObservador(observador);
+                indiceUso.adicionar(artigo, (int) chave.getId(), IndiceUso.diasComUso(artigo));
+            }
+            indiceTextual.adicionar(artigo);
+        }
         artigosPorTitulo.put(artigo.getTitulo(),artigo);
+        versaoArtigosPorTitulo = versaoArtigosPorTitulo.inserir(artigo.getTitulo(), artigo);
+        versaoPorPublicar = true;
     }
 
     /**
@@ -47,10 +488,98 @@ public class BaseDeDados {
      * @param titulo o título do artigo a ser removido
      */
     public void removerArtigo(String titulo){
+        if (titulo == null) return;
+        alterar(r -> r.removerArtigo(titulo), () -> aplicarRemoverArtigo(titulo));
+    }
+
+    /**
+     * Aplica a remoção de um artigo sem a escrever no registo de operações.
+     *
+     * @param titulo o título do artigo a ser removido
+     */
+    void aplicarRemoverArtigo(String titulo) {
         Artigo artigo = artigosPorTitulo.remove(titulo);
         if (artigo != null) {
-            artigosPorData.delete(artigo.getData());
+            versaoArtigosPorTitulo = versaoArtigosPorTitulo.remover(titulo);
+            versaoAutoresPorArtigo = versaoAutoresPorArtigo.remover(titulo);
+            versaoPorPublicar = true;
+            ChaveTemporal chave = chavesArtigos.remove(artigo);
+            if (chave != null) {
+                artigosPorData.remove(chave);
+                versaoArtigosPorData = versaoArtigosPorData.remover(chave);
+                for (Autor autor : artigo.getAutores()) {
+                    desindexarAutor(autor, chave);
+                }
+                synchronized (artigo) {
+                    artigo.setObservador(null);
+                    indiceUso.remover(artigo, IndiceUso.diasComUso(artigo));
+                }
+                indiceTextual.remover(artigo);
+            }
+        }
+    }
+
+    /**
+     * Regista a ligação de um artigo da base a um dos seus autores: acrescenta o artigo ao índice do autor,
+     * ordenado por data de publicação, e atualiza as contagens de consistência.
+     *
+     * @param autor  o autor do artigo
+     * @param artigo o artigo a indexar
+     * @param chave  a chave temporal do artigo
+     */
+    private void indexarAutor(Autor autor, Artigo artigo, ChaveTemporal chave) {
+        String orcid = autor.getOrcid();
+        if (orcid != null) {
+            artigosPorAutor.computeIfAbsent(orcid, o -> new ConcurrentSkipListMap<>()).put(chave, artigo);
+            ArvorePersistente<ChaveTemporal, Artigo> versaoDoAutor = versaoArtigosPorAutor.obter(orcid);
+            versaoArtigosPorAutor = versaoArtigosPorAutor.inserir(orcid,
+                    (versaoDoAutor == null ? new ArvorePersistente<ChaveTemporal, Artigo>() : versaoDoAutor)
+                            .inserir(chave, artigo));
+            versaoPorPublicar = true;
         }
+        verificador.referenciaAdicionada(orcid, registado(orcid));
+    }
+
+    /**
+     * Guarda nas cópias persistentes a lista atual de autores de um artigo da base. Os objetos {@link Artigo} são
+     * partilhados com as versões já abertas, pelo que estas leem os autores de cada artigo desta cópia, que fica fixa
+     * no seu instante, e não da lista atual do artigo.
+     *
+     * @param artigo o artigo da base
+     */
+    private void versionarAutores(Artigo artigo) {
+        versaoAutoresPorArtigo = versaoAutoresPorArtigo.inserir(artigo.getTitulo(),
+                Collections.unmodifiableList(artigo.getAutores()));
+        versaoPorPublicar = true;
+    }
+
+    /**
+     * Remove a ligação de um artigo da base a um dos seus autores do índice por autor e das contagens de consistência.
+     *
+     * @param autor o autor do artigo
+     * @param chave a chave temporal do artigo
+     */
+    private void desindexarAutor(Autor autor, ChaveTemporal chave) {
+        String orcid = autor.getOrcid();
+        ConcurrentSkipListMap<ChaveTemporal, Artigo> artigosDoAutor = orcid == null ? null : artigosPorAutor.get(orcid);
+        if (artigosDoAutor != null) {
+            artigosDoAutor.remove(chave);
+            if (artigosDoAutor.isEmpty()) {
+                artigosPorAutor.remove(orcid);
+            }
+            ArvorePersistente<ChaveTemporal, Artigo> versaoDoAutor = versaoArtigosPorAutor.obter(orcid).remover(chave);
+            versaoArtigosPorAutor = versaoDoAutor.vazia()
+                    ? versaoArtigosPorAutor.remover(orcid) : versaoArtigosPorAutor.inserir(orcid, versaoDoAutor);
+            versaoPorPublicar = true;
+        }
+        verificador.referenciaRemovida(orcid, registado(orcid));
+    }
+
+    /**
+     * Verifica se um ORCID pertence a um autor registado na base.
+     */
+    private boolean registado(String orcid) {
+        return orcid != null && autoresPorID.containsKey(orcid);
     }
 
     /**
@@ -60,8 +589,86 @@ public class BaseDeDados {
      * @param novoArtigo o novo artigo que substituirá o artigo existente
      */
     public void editarArtigo(String titulo, Artigo novoArtigo) {
-        removerArtigo(titulo);
-        adicionarArtigo(novoArtigo);
+        validarArtigo(novoArtigo);
+        alterar(r -> r.editarArtigo(titulo, novoArtigo), () -> aplicarEditarArtigo(titulo, novoArtigo));
+    }
+
+    /**
+     * Aplica a edição de um artigo sem a escrever no registo de operações.
+     *
+     * @param titulo o título do artigo a ser editado
+     * @param novoArtigo o novo artigo que substituirá o artigo existente
+     */
+    void aplicarEditarArtigo(String titulo, Artigo novoArtigo) {
+        if (titulo != null) {
+            aplicarRemoverArtigo(titulo);
+        }
+        aplicarAdicionarArtigo(novoArtigo);
+    }
+
+    /**
+     * Aplica a adição de um autor a um artigo da base sem a escrever no registo de operações.
+     * Se o autor estiver registado na base, é usado o autor registado.
+     *
+     * @param titulo o título do artigo
+     * @param autor  o autor adicionado
+     */
+    void aplicarAdicionarAutorArtigo(String titulo, Autor autor) {
+        Artigo artigo = procurarArtigoPorTitulo(titulo);
+        if (artigo != null) {
+            Autor registado = procurarAutorPorID(autor.getOrcid());
+            artigo.adicionarAutor(registado != null ? registado : autor);
+        }
+    }
+
+    /**
+     * Aplica a remoção de um autor de um artigo da base sem a escrever no registo de operações.
+     *
+     * @param titulo o título do artigo
+     * @param orcid  o ORCID do autor removido
+     */
+    void aplicarRemoverAutorArtigo(String titulo, String orcid) {
+        Artigo artigo = procurarArtigoPorTitulo(titulo);
+        if (artigo == null) return;
+        for (Autor autor : artigo.getAutores()) {
+            if (Objects.equals(autor.getOrcid(), orcid)) {
+                artigo.removerAutor(autor);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Aplica uso a um artigo da base sem o escrever no registo de operações.
+     *
+     * @param titulo      o título do artigo
+     * @param tipos       o tipo de cada registo de uso
+     * @param dias        o número do dia de cada registo
+     * @param quantidades a quantidade de cada registo
+     */
+    void aplicarRegistarUso(String titulo, byte[] tipos, long[] dias, int[] quantidades) {
+        Artigo artigo = procurarArtigoPorTitulo(titulo);
+        if (artigo != null) {
+            synchronized (artigo) {
+                artigo.aplicarUso(tipos, dias, quantidades, tipos.length);
+            }
+        }
+    }
+
+    /**
+     * Aplica a substituição de uma série de uso de um artigo da base sem a escrever no registo de operações.
+     *
+     * @param titulo o título do artigo
+     * @param tipo   o tipo da série
+     * @param serie  a nova série
+     */
+    void aplicarSubstituirUso(String titulo, byte tipo, SerieTemporal serie) {
+        Artigo artigo = procurarArtigoPorTitulo(titulo);
+        if (artigo != null) {
+            synchronized (artigo) {
+                artigo.aplicarSubstituicao(tipo, serie);
+            }
+        }
     }
 
     /**
@@ -70,11 +677,84 @@ public class BaseDeDados {
      * @return uma lista que contém todos os artigos
      */
     public List<Artigo> listarArtigos() {
-        List<Artigo> lista = new ArrayList<>();
-        for (Date data : artigosPorData.keys()) {
-            lista.add(artigosPorData.get(data));
+        return lerOtimista(() -> new ArrayList<>(artigosPorData.values()));
+    }
+
+    /**
+     * Obtém uma vista de todos os artigos, por ordem de data, sem os copiar.
+     * A vista é fracamente consistente: pode ser percorrida enquanto a base é alterada e reflete algumas dessas
+     * alterações.
+     *
+     * @return uma vista só de leitura dos artigos
+     */
+    public Collection<Artigo> artigos() {
+        return Collections.unmodifiableCollection(artigosPorData.values());
+    }
+
+    /**
+     * Obtém uma vista dos artigos publicados num período, por ordem de data, sem os copiar.
+     *
+     * @param inicio a data de início do período
+     * @param fim    a data de fim do período
+     * @return uma vista só de leitura dos artigos do período
+     */
+    public Collection<Artigo> artigos(Date inicio, Date fim) {
+        return Collections.unmodifiableCollection(artigosNoPeriodo(inicio, fim).values());
+    }
+
+    /**
+     * Obtém uma stream de todos os artigos, por ordem de data. Em paralelo, o índice por data é dividido
+     * entre os núcleos disponíveis.
+     *
+     * @return uma stream dos artigos
+     */
+    public Stream<Artigo> streamArtigos() {
+        return artigosPorData.values().stream();
+    }
+
+    /**
+     * Obtém uma stream dos artigos publicados num período, por ordem de data.
+     *
+     * @param inicio a data de início do período
+     * @param fim    a data de fim do período
+     * @return uma stream dos artigos do período
+     */
+    public Stream<Artigo> streamArtigos(Date inicio, Date fim) {
+        return artigosNoPeriodo(inicio, fim).values().stream();
+    }
+
+    /**
+     * Obtém a primeira página dos artigos publicados num período, por ordem de data.
+     *
+     * @param inicio        a data de início do período
+     * @param fim           a data de fim do período
+     * @param tamanhoPagina o número máximo de artigos por página
+     * @return a primeira página de artigos
+     */
+    public Pagina<Artigo> paginarArtigos(Date inicio, Date fim, int tamanhoPagina) {
+        if (tamanhoPagina <= 0) {
+            throw new IllegalArgumentException("O tamanho da página deve ser positivo: " + tamanhoPagina);
+        }
+        return lerOtimista(() -> paginaArtigos(artigosNoPeriodo(inicio, fim), tamanhoPagina, fim));
+    }
+
+    /**
+     * Constrói uma página com os primeiros artigos de um intervalo do índice por data. A página seguinte
+     * continua a partir da chave do último artigo desta página.
+     */
+    private Pagina<Artigo> paginaArtigos(NavigableMap<ChaveTemporal, Artigo> intervalo, int tamanhoPagina, Date fim) {
+        List<Artigo> elementos = new ArrayList<>(Math.min(tamanhoPagina, 64));
+        ChaveTemporal ultima = null;
+        for (Map.Entry<ChaveTemporal, Artigo> entrada : intervalo.entrySet()) {
+            if (elementos.size() == tamanhoPagina) {
+                ChaveTemporal depois = ultima;
+                return new Pagina<>(elementos, () -> lerOtimista(() -> paginaArtigos(
+                        artigosPorData.subMap(depois, false, ChaveTemporal.fim(fim), true), tamanhoPagina, fim)));
+            }
+            elementos.add(entrada.getValue());
+            ultima = entrada.getKey();
         }
-        return lista;
+        return new Pagina<>(elementos, null);
     }
 
     /**
@@ -83,8 +763,70 @@ public class BaseDeDados {
      * @param autor o autor a ser adicionado
      */
     public void adicionarAutor(Autor autor) {
-        autoresPorNome.put(autor.getNome(), autor);
-        autoresPorID.put(autor.getOrcid(), autor);
+        validarAutor(autor);
+        alterar(r -> r.adicionarAutor(autor), () -> aplicarAdicionarAutor(autor));
+    }
+
+    /**
+     * Aplica a adição de um autor sem a escrever no registo de operações.
+     *
+     * @param autor o autor a ser adicionado
+     */
+    void aplicarAdicionarAutor(Autor autor) {
+        Autor anterior = autoresPorID.put(autor.getOrcid(), autor);
+        if (anterior == null) {
+            verificador.autorRegistado(autor.getOrcid());
+        } else {
+            autoresPorNome.remove(chaveNome(anterior));
+            versaoAutoresPorNome = versaoAutoresPorNome.remover(chaveNome(anterior));
+            indiceNomes.remover(anterior);
+            desindexarIdentificadores(anterior);
+        }
+        autoresPorNome.put(chaveNome(autor), autor);
+        versaoAutoresPorID = versaoAutoresPorID.inserir(autor.getOrcid(), autor);
+        versaoAutoresPorNome = versaoAutoresPorNome.inserir(chaveNome(autor), autor);
+        versaoPorPublicar = true;
+        indiceNomes.adicionar(autor);
+        indexarIdentificadores(autor);
+    }
+
+    /**
+     * Acrescenta um autor aos índices dos identificadores externos (Ciência ID, Google Scholar, Scopus).
+     *
+     * @param autor o autor a indexar
+     */
+    private void indexarIdentificadores(Autor autor) {
+        for (Map.Entry<TipoIdentificador, ConcurrentHashMap<String, Autor>> indice : autoresPorIdentificadorExterno.entrySet()) {
+            String identificador = indice.getKey().de(autor);
+            if (identificador != null) {
+                indice.getValue().put(identificador, autor);
+            }
+        }
+    }
+
+    /**
+     * Remove um autor dos índices dos identificadores externos, mantendo as entradas que já apontem para outro autor.
+     *
+     * @param autor o autor a remover
+     */
+    private void desindexarIdentificadores(Autor autor) {
+        for (Map.Entry<TipoIdentificador, ConcurrentHashMap<String, Autor>> indice : autoresPorIdentificadorExterno.entrySet()) {
+            String identificador = indice.getKey().de(autor);
+            if (identificador != null) {
+                indice.getValue().remove(identificador, autor);
+            }
+        }
+    }
+
+    /**
+     * Obtém a chave de um autor no índice por nome. O ORCID é acrescentado ao nome para que autores homónimos
+     * não se sobreponham, mantendo a ordem alfabética dos nomes.
+     *
+     * @param autor o autor
+     * @return a chave do autor no índice por nome
+     */
+    private static String chaveNome(Autor autor) {
+        return autor.getNome() + '\u0000' + autor.getOrcid();
     }
 
     /**
@@ -93,32 +835,71 @@ public class BaseDeDados {
      * @param orcid o ORCID do autor a ser removido
      */
     public void removerAutor(String orcid) {
+        if (orcid == null) return;
+        alterar(r -> r.removerAutor(orcid), () -> aplicarRemoverAutor(orcid));
+    }
+
+    /**
+     * Aplica a remoção de um autor sem a escrever no registo de operações.
+     *
+     * @param orcid o ORCID do autor a ser removido
+     */
+    void aplicarRemoverAutor(String orcid) {
         Autor autor = autoresPorID.remove(orcid);
         if (autor != null) {
-            autoresPorNome.delete(autor.getNome());
+            verificador.autorRemovido(orcid);
+            autoresPorNome.remove(chaveNome(autor));
+            versaoAutoresPorID = versaoAutoresPorID.remover(orcid);
+            versaoAutoresPorNome = versaoAutoresPorNome.remover(chaveNome(autor));
+            versaoPorPublicar = true;
+            indiceNomes.remover(autor);
+            desindexarIdentificadores(autor);
             arquivarAutor(autor);
             atualizarArtigosRemocaoAutor(autor);
         }
     }
 
+    /**
+     * Obtém os autores arquivados, por ORCID.
+     *
+     * @return o mapa de ORCID para nome científico dos autores removidos
+     */
+    Map<String, String> getAutoresArquivados() {
+        return autoresArquivados;
+    }
+
     /**
      * Arquiva um autor removido.
      *
      * @param autor o autor a ser arquivado
      */
     public void arquivarAutor(Autor autor){
-        autoresArquivados.put(autor.getOrcid(),autor.getNomeCientifico());
+        long stamp = bloquearEscrita();
+        try {
+            autoresArquivados.put(autor.getOrcid(),autor.getNomeCientifico());
+        } finally {
+            desbloquearEscrita(stamp);
+        }
     }
 
     /**
      * Atualiza os artigos removendo a referência a um autor removido.
+     * Percorre apenas os artigos da base indexados com o ORCID do autor e retira de cada um os autores com esse
+     * ORCID. A procura é feita pelo ORCID e não pelo objeto porque, quando o registo de operações é reproduzido,
+     * os artigos recebem objetos {@link Autor} próprios, diferentes do autor registado.
      *
      * @param autor o autor removido
      */
     private void atualizarArtigosRemocaoAutor(Autor autor) {
-        for (Artigo artigo : listarArtigos()) {
-            if (artigo.getAutores().contains(autor)) {
-                artigo.removerAutor(autor);
+        String orcid = autor.getOrcid();
+        ConcurrentSkipListMap<ChaveTemporal, Artigo> artigosDoAutor = orcid == null ? null : artigosPorAutor.get(orcid);
+        if (artigosDoAutor == null) return;
+        // A remoção de cada autor altera o índice por autor, pelo que os artigos são copiados antes
+        for (Artigo artigo : new ArrayList<>(artigosDoAutor.values())) {
+            for (Autor doArtigo : artigo.getAutores()) {
+                if (orcid.equals(doArtigo.getOrcid())) {
+                    artigo.removerAutor(doArtigo);
+                }
             }
         }
     }
@@ -130,8 +911,39 @@ public class BaseDeDados {
      * @param novoAutor o novo autor que substituirá o autor existente
      */
     public void editarAutor(String orcid, Autor novoAutor) {
-        removerAutor(orcid);
-        adicionarAutor(novoAutor);
+        validarAutor(novoAutor);
+        alterar(r -> r.editarAutor(orcid, novoAutor), () -> aplicarEditarAutor(orcid, novoAutor));
+    }
+
+    /**
+     * Verifica que um artigo tem o título e a data que o identificam nos índices.
+     */
+    private static void validarArtigo(Artigo artigo) {
+        if (artigo.getTitulo() == null || artigo.getData() == null) {
+            throw new IllegalArgumentException("O artigo tem de ter título e data");
+        }
+    }
+
+    /**
+     * Verifica que um autor tem o ORCID que o identifica nos índices.
+     */
+    private static void validarAutor(Autor autor) {
+        if (autor.getOrcid() == null) {
+            throw new IllegalArgumentException("O autor tem de ter ORCID");
+        }
+    }
+
+    /**
+     * Aplica a edição de um autor sem a escrever no registo de operações.
+     *
+     * @param orcid o ORCID do autor a ser editado
+     * @param novoAutor o novo autor que substituirá o autor existente
+     */
+    void aplicarEditarAutor(String orcid, Autor novoAutor) {
+        if (orcid != null) {
+            aplicarRemoverAutor(orcid);
+        }
+        aplicarAdicionarAutor(novoAutor);
     }
 
     /**
@@ -140,11 +952,60 @@ public class BaseDeDados {
      * @return uma lista que contém todos os autores
      */
     public List<Autor> listarAutores() {
-        List<Autor> lista = new ArrayList<>();
-        for (String nome : autoresPorNome.keys()) {
-            lista.add(autoresPorNome.get(nome));
+        return lerOtimista(() -> new ArrayList<>(autoresPorNome.values()));
+    }
+
+    /**
+     * Obtém uma vista de todos os autores, por ordem de nome, sem os copiar.
+     * A vista é fracamente consistente: pode ser percorrida enquanto a base é alterada e reflete algumas dessas
+     * alterações.
+     *
+     * @return uma vista só de leitura dos autores
+     */
+    public Collection<Autor> autores() {
+        return Collections.unmodifiableCollection(autoresPorNome.values());
+    }
+
+    /**
+     * Obtém uma stream de todos os autores, por ordem de nome.
+     *
+     * @return uma stream dos autores
+     */
+    public Stream<Autor> streamAutores() {
+        return autoresPorNome.values().stream();
+    }
+
+    /**
+     * Obtém a primeira página dos autores por ordem de nome, a partir de um nome.
+     *
+     * @param aPartirDe     o nome a partir do qual a listagem começa, inclusive, ou null para começar do início
+     * @param tamanhoPagina o número máximo de autores por página
+     * @return a primeira página de autores
+     */
+    public Pagina<Autor> paginarAutores(String aPartirDe, int tamanhoPagina) {
+        if (tamanhoPagina <= 0) {
+            throw new IllegalArgumentException("O tamanho da página deve ser positivo: " + tamanhoPagina);
+        }
+        return lerOtimista(() -> paginaAutores(
+                aPartirDe == null ? autoresPorNome : autoresPorNome.tailMap(aPartirDe, true), tamanhoPagina));
+    }
+
+    /**
+     * Constrói uma página com os primeiros autores de um intervalo do índice por nome.
+     */
+    private Pagina<Autor> paginaAutores(NavigableMap<String, Autor> intervalo, int tamanhoPagina) {
+        List<Autor> elementos = new ArrayList<>(Math.min(tamanhoPagina, 64));
+        String ultimo = null;
+        for (Map.Entry<String, Autor> entrada : intervalo.entrySet()) {
+            if (elementos.size() == tamanhoPagina) {
+                String depois = ultimo;
+                return new Pagina<>(elementos, () -> lerOtimista(() ->
+                        paginaAutores(autoresPorNome.tailMap(depois, false), tamanhoPagina)));
+            }
+            elementos.add(entrada.getValue());
+            ultimo = entrada.getKey();
         }
-        return lista;
+        return new Pagina<>(elementos, null);
     }
 
     /**
@@ -154,7 +1015,68 @@ public class BaseDeDados {
      * @return o artigo encontrado ou null se não encontrado
      */
     public Artigo procurarArtigoPorTitulo(String titulo) {
-        return artigosPorTitulo.get(titulo);
+        return titulo == null ? null : artigosPorTitulo.get(titulo);
+    }
+
+    /**
+     * Pesquisa artigos pelo texto do título, do resumo e das palavras-chave, ordenados por relevância (BM25).
+     * Termos separados por espaços têm de ocorrer todos; {@code a OR b} aceita qualquer um dos dois;
+     * {@code -termo} exclui os artigos que o contêm; {@code "uma frase"} exige os termos seguidos.
+     * A comparação ignora maiúsculas e acentos.
+     *
+     * @param consulta a consulta
+     * @param limite   o número máximo de artigos a devolver
+     * @return os artigos encontrados, do mais relevante para o menos relevante
+     */
+    public List<Artigo> pesquisarArtigos(String consulta, int limite) {
+        return ler(() -> indiceTextual.pesquisar(consulta, null, null, null, limite));
+    }
+
+    /**
+     * Pesquisa artigos pelo texto, limitando os resultados a um período de publicação e a um tipo de publicação.
+     *
+     * @param consulta a consulta, com a sintaxe de {@link #pesquisarArtigos(String, int)}
+     * @param inicio   a data mínima de publicação, ou null para não limitar
+     * @param fim      a data máxima de publicação, ou null para não limitar
+     * @param tipo     o tipo de publicação pretendido, ou null para aceitar todos
+     * @param limite   o número máximo de artigos a devolver
+     * @return os artigos encontrados, do mais relevante para o menos relevante
+     */
+    public List<Artigo> pesquisarArtigos(String consulta, Date inicio, Date fim, TipoPublicacao tipo, int limite) {
+        return ler(() -> indiceTextual.pesquisar(consulta, inicio, fim, tipo, limite));
+    }
+
+    /**
+     * Procura todos os autores com um nome ou nome científico, ignorando maiúsculas e acentos.
+     *
+     * @param nome o nome completo do autor
+     * @return os autores com esse nome, incluindo os homónimos
+     */
+    public List<Autor> procurarAutoresPorNome(String nome) {
+        return ler(() -> indiceNomes.procurar(nome));
+    }
+
+    /**
+     * Procura os autores com uma palavra do nome ou do nome científico a começar por um prefixo, para autocompletar.
+     *
+     * @param prefixo o prefixo escrito
+     * @param limite  o número máximo de autores a devolver
+     * @return os autores encontrados, por ordem alfabética
+     */
+    public List<Autor> autocompletarAutores(String prefixo, int limite) {
+        return ler(() -> indiceNomes.procurarPorPrefixo(prefixo, limite));
+    }
+
+    /**
+     * Procura os autores com um nome parecido, tolerando erros de escrita.
+     *
+     * @param nome            o nome a procurar
+     * @param distanciaMaxima o número máximo de caracteres inseridos, removidos ou trocados
+     * @param limite          o número máximo de autores a devolver
+     * @return os autores encontrados, do mais parecido para o menos parecido
+     */
+    public List<Autor> procurarAutoresAproximado(String nome, int distanciaMaxima, int limite) {
+        return ler(() -> indiceNomes.procurarAproximado(nome, distanciaMaxima, limite));
     }
 
     /**
@@ -164,80 +1086,176 @@ public class BaseDeDados {
      * @return o autor encontrado ou null se não encontrado
      */
     public Autor procurarAutorPorID(String orcid) {
-        return autoresPorID.get(orcid);
+        return orcid == null ? null : autoresPorID.get(orcid);
+    }
+
+    /**
+     * Procura um autor por um dos seus identificadores.
+     *
+     * @param tipo          o tipo do identificador
+     * @param identificador o identificador do autor
+     * @return o autor encontrado ou null se não existir
+     */
+    public Autor procurarAutor(TipoIdentificador tipo, String identificador) {
+        if (identificador == null) {
+            return null;
+        }
+        if (tipo == TipoIdentificador.ORCID) {
+            return autoresPorID.get(identificador);
+        }
+        return autoresPorIdentificadorExterno.get(tipo).get(identificador);
+    }
+
+    /**
+     * Resolve vários identificadores do mesmo tipo numa só chamada.
+     *
+     * @param tipo             o tipo dos identificadores
+     * @param identificadores  os identificadores a resolver
+     * @return um mapa de cada identificador resolvido para o respetivo autor; os identificadores desconhecidos
+     *         não constam do mapa
+     */
+    public Map<String, Autor> resolverAutores(TipoIdentificador tipo, Collection<String> identificadores) {
+        Map<String, Autor> indice = tipo == TipoIdentificador.ORCID ? autoresPorID : autoresPorIdentificadorExterno.get(tipo);
+        Map<String, Autor> resultado = new HashMap<>(Math.max(16, identificadores.size() * 4 / 3 + 1));
+        for (String identificador : identificadores) {
+            Autor autor = identificador == null ? null : indice.get(identificador);
+            if (autor != null) {
+                resultado.put(identificador, autor);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Resolve vários identificadores de tipos possivelmente diferentes numa só chamada. Cada identificador é
+     * procurado como ORCID, Ciência ID, Google Scholar e Scopus, por esta ordem, até ser encontrado.
+     *
+     * @param identificadores os identificadores a resolver
+     * @return um mapa de cada identificador resolvido para o respetivo autor; os identificadores desconhecidos
+     *         não constam do mapa
+     */
+    public Map<String, Autor> resolverAutores(Collection<String> identificadores) {
+        Map<String, Autor> resultado = new HashMap<>(Math.max(16, identificadores.size() * 4 / 3 + 1));
+        for (String identificador : identificadores) {
+            if (identificador == null) continue;
+            Autor autor = autoresPorID.get(identificador);
+            for (Iterator<ConcurrentHashMap<String, Autor>> indices = autoresPorIdentificadorExterno.values().iterator();
+                 autor == null && indices.hasNext(); ) {
+                autor = indices.next().get(identificador);
+            }
+            if (autor != null) {
+                resultado.put(identificador, autor);
+            }
+        }
+        return resultado;
     }
 
     /**
      * Valida a consistência da base de dados, verificando se todos os autores referenciados em artigos
      * estão presentes na base de dados.
+     * As referências a autores em falta são contadas à medida que a base é alterada, pelo que a verificação é O(1).
      *
      * @return true se a base de dados for consistente, false caso contrário
      */
     public boolean validarConsistencia() {
-        for (Artigo artigo : listarArtigos()) {
-            for (Autor autor : artigo.getAutores()) {
-                if (!autoresPorID.containsKey(autor.getOrcid())) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        return ler(() -> verificador.consistente());
+    }
+
+    /**
+     * Obtém o número de referências de artigos a autores que não estão presentes na base de dados.
+     *
+     * @return o número de referências pendentes
+     */
+    public long contarReferenciasPendentes() {
+        return ler(() -> verificador.getReferenciasPendentes());
+    }
+
+    /**
+     * Audita todos os artigos em paralelo e devolve cada referência a um autor que não está presente na base de dados.
+     *
+     * @return a lista de violações encontradas, pela ordem de data dos artigos
+     */
+    public List<ViolacaoConsistencia> auditarConsistencia() {
+        return ler(() -> streamArtigos().parallel()
+                .flatMap(artigo -> artigo.getAutores().stream()
+                        .filter(autor -> !registado(autor.getOrcid()))
+                        .map(autor -> new ViolacaoConsistencia(artigo, autor.getOrcid())))
+                .collect(Collectors.toList()));
     }
 
     /**
      * Busca todos os artigos escritos por um autor em um dado período.
+     * Usa o índice por autor, pelo que o custo depende apenas dos artigos do próprio autor.
      *
      * @param orcid  ORCID do autor.
      * @param inicio Data de início do período.
      * @param fim    Data de fim do período.
-     * @return Lista de artigos escritos pelo autor no período especificado.
+     * @return Lista de artigos escritos pelo autor no período especificado, ordenada por data.
      */
 
     public List<Artigo> artigosAutorPorPeriodo(String orcid, Date inicio, Date fim) {
-        List<Artigo> resultado = new ArrayList<>();
-        for (Date data : artigosPorData.keys(inicio, fim)) {
-            Artigo artigo = artigosPorData.get(data);
-            for (Autor autor : artigo.getAutores()) {
-                if (autor.getOrcid().equals(orcid)) {
-                    resultado.add(artigo);
-                    break;
-                }
-            }
+        ConcurrentSkipListMap<ChaveTemporal, Artigo> artigosDoAutor = orcid == null ? null : artigosPorAutor.get(orcid);
+        if (artigosDoAutor == null || inicio.after(fim)) {
+            return new ArrayList<>();
         }
-        return resultado;
+        return lerOtimista(() -> new ArrayList<>(
+                artigosDoAutor.subMap(ChaveTemporal.inicio(inicio), true, ChaveTemporal.fim(fim), true).values()));
+    }
+
+    /**
+     * Obtém a vista do índice por data com todos os artigos publicados num período, incluindo os vários artigos
+     * de uma mesma data. A vista é obtida em O(log n) e percorrida entrada a entrada, sem cópias.
+     *
+     * @param inicio a data de início do período
+     * @param fim    a data de fim do período
+     * @return a vista dos artigos publicados no período, por ordem de data
+     */
+    private NavigableMap<ChaveTemporal, Artigo> artigosNoPeriodo(Date inicio, Date fim) {
+        if (inicio.after(fim)) {
+            return Collections.emptyNavigableMap();
+        }
+        return artigosPorData.subMap(ChaveTemporal.inicio(inicio), true, ChaveTemporal.fim(fim), true);
     }
 
     /**
      * Retorna uma lista de artigos que não foram visualizados nem descarregados durante o período especificado.
+     * Os artigos usados no período são obtidos do índice de uso por dia, mês e ano, sem consultar as séries de uso
+     * de cada artigo.
      *
      * @param inicio a data de início do período.
      * @param fim a data de término do período.
      * @return uma lista de artigos que não foram visualizados nem descarregados no período especificado.
      */
     public List<Artigo> artigosNaoDescarregadosVizualizadosPorPeriodo(Date inicio,Date fim){
-        List<Artigo> resultado = new ArrayList<>();
-        for (Date data : artigosPorData.keys(inicio,fim)){
-            Artigo artigo = artigosPorData.get(data);
-            boolean foiVisualizadoNoPeriodo = false;
-            boolean foiDescarregadoNoPeriodo = false;
-
-            for (Map.Entry<Date, Integer> visualizacaoEntry : artigo.getVisualizacoes().entrySet()) {
-                Date dataVisualizacao = visualizacaoEntry.getKey();
-                if (!dataVisualizacao.before(inicio) && !dataVisualizacao.after(fim)) {
-                    foiVisualizadoNoPeriodo = true;
-                    break;
-                }
-            }
+        if (inicio.after(fim)) {
+            return new ArrayList<>();
+        }
+        return lerOtimista(() -> artigosSemUsoNoPeriodo(inicio, fim));
+    }
 
-            for (Map.Entry<Date, Integer> downloadEntry : artigo.getDownloads().entrySet()) {
-                Date dataDownload = downloadEntry.getKey();
-                if (!dataDownload.before(inicio) && !dataDownload.after(fim)) {
-                    foiDescarregadoNoPeriodo = true;
-                    break;
-                }
+    private List<Artigo> artigosSemUsoNoPeriodo(Date inicio, Date fim) {
+        BitmapCompacto usados = indiceUso.usados(SerieTemporal.dia(inicio), SerieTemporal.dia(fim));
+        List<Artigo> resultado = new ArrayList<>();
+        for (Map.Entry<ChaveTemporal, Artigo> entrada : artigosNoPeriodo(inicio, fim).entrySet()) {
+            if (!usados.contem((int) entrada.getKey().getId())) {
+                resultado.add(entrada.getValue());
             }
+        }
+        return resultado;
+    }
 
-            if (!foiVisualizadoNoPeriodo && !foiDescarregadoNoPeriodo) {
+    /**
+     * Filtra os artigos que não foram visualizados nem descarregados durante um período.
+     *
+     * @param artigos os artigos a filtrar
+     * @param inicio  a data de início do período
+     * @param fim     a data de fim do período
+     * @return uma nova lista com os artigos sem uso no período, pela ordem recebida
+     */
+    static List<Artigo> artigosSemUso(Iterable<Artigo> artigos, Date inicio, Date fim) {
+        List<Artigo> resultado = new ArrayList<>();
+        for (Artigo artigo : artigos){
+            if (!artigo.foiVisualizadoOuDescarregado(inicio, fim)) {
                 resultado.add(artigo);
             }
         }
@@ -251,46 +1269,144 @@ public class BaseDeDados {
      *
      * @param inicio data de início do período
      * @param fim data de fim do período
-     * @return uma lista contendo os três artigos mais utilizados durante o período especificado
+     * @return uma lista contendo até três artigos mais utilizados durante o período especificado
      */
     public List<Artigo> top3ArtigosMaisUsadosPorPeriodo(Date inicio, Date fim) {
-        Map<Artigo, Integer> usoArtigos = new HashMap<>();
-
-        for (Date data : artigosPorData.keys(inicio,fim)){
-            Artigo artigo = artigosPorData.get(data);
-            int totalUso = 0;
+        return topK(inicio, fim, 3, MetricaUso.VISUALIZACOES_E_DOWNLOADS);
+    }
 
-            for (Map.Entry<Date, Integer> visualizacaoEntry : artigo.getVisualizacoes().entrySet()) {
-                Date dataVisualizacao = visualizacaoEntry.getKey();
-                if (!dataVisualizacao.before(inicio) && !dataVisualizacao.after(fim)) {
-                    totalUso += visualizacaoEntry.getValue();
-                }
-            }
+    /**
+     * Retorna os k artigos publicados num período com maior valor de uma métrica de uso nesse período.
+     * Usa uma fila de prioridade limitada a k elementos, em O(n log k); em períodos com muitos artigos,
+     * as partições do índice por data são processadas em paralelo e os resultados parciais são juntos no fim.
+     *
+     * @param inicio  data de início do período
+     * @param fim     data de fim do período
+     * @param k       o número máximo de artigos a devolver
+     * @param metrica a métrica de uso a considerar
+     * @return uma lista com até k artigos com uso no período, do mais para o menos utilizado
+     */
+    public List<Artigo> topK(Date inicio, Date fim, int k, MetricaUso metrica) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k não pode ser negativo: " + k);
+        }
+        if (inicio.after(fim) || k == 0) {
+            return new ArrayList<>();
+        }
+        return lerOtimista(() -> selecionarTopK(inicio, fim, k, metrica));
+    }
 
-            for (Map.Entry<Date, Integer> downloadEntry : artigo.getDownloads().entrySet()) {
-                Date dataDownload = downloadEntry.getKey();
-                if (!dataDownload.before(inicio) && !dataDownload.after(fim)) {
-                    totalUso += downloadEntry.getValue();
-                }
+    /**
+     * Seleciona os k artigos do período. O número de artigos é obtido do índice por título, porque o tamanho do
+     * índice por data não é mantido e obrigaria a percorrê-lo.
+     */
+    private List<Artigo> selecionarTopK(Date inicio, Date fim, int k, MetricaUso metrica) {
+        NavigableMap<ChaveTemporal, Artigo> periodo = artigosNoPeriodo(inicio, fim);
+        if (artigosPorTitulo.size() < SelecaoTopK.LIMIAR_PARALELO) {
+            SelecaoTopK selecao = new SelecaoTopK(k);
+            for (Map.Entry<ChaveTemporal, Artigo> entrada : periodo.entrySet()) {
+                selecao.considerar(entrada.getValue(), entrada.getKey(), metrica.avaliar(entrada.getValue(), inicio, fim));
             }
+            return selecao.resultado();
+        }
+        return periodo.entrySet().parallelStream().collect(
+                () -> new SelecaoTopK(k),
+                (selecao, entrada) -> selecao.considerar(entrada.getValue(), entrada.getKey(),
+                        metrica.avaliar(entrada.getValue(), inicio, fim)),
+                SelecaoTopK::juntar).resultado();
+    }
 
-            if (totalUso > 0) {
-                usoArtigos.put(artigo, totalUso);
-            }
+    /**
+     * Guarda a base de dados num snapshot binário, que pode ser carregado com {@link #carregarSnapshot(Path)}.
+     *
+     * @param ficheiro o caminho do ficheiro de snapshot
+     * @throws IOException se ocorrer um erro ao escrever o ficheiro
+     */
+    public void guardarSnapshot(Path ficheiro) throws IOException {
+        long stamp = bloquearLeitura();
+        try {
+            SnapshotBaseDeDados.escrever(this, ficheiro);
+        } finally {
+            desbloquearLeitura(stamp);
         }
+    }
 
+    /**
+     * Carrega uma base de dados a partir de um snapshot binário.
+     *
+     * @param ficheiro o caminho do ficheiro de snapshot
+     * @return a base de dados reconstruída
+     * @throws IOException se o ficheiro não puder ser lido ou não for um snapshot válido
+     */
+    public static BaseDeDados carregarSnapshot(Path ficheiro) throws IOException {
+        return SnapshotBaseDeDados.ler(ficheiro);
+    }
 
-        // Ordena os artigos pelo total de uso (em ordem decrescente)
-        List<Map.Entry<Artigo, Integer>> listaOrdenada = new ArrayList<>(usoArtigos.entrySet());
-        listaOrdenada.sort((e1, e2) -> e2.getValue().compareTo(e1.getValue()));
+    /**
+     * Carrega em massa autores e artigos numa base vazia, sem passar pelo registo de operações nem pelas cópias
+     * persistentes de cada adição: os mapas são preenchidos diretamente e as cópias persistentes são construídas
+     * uma única vez, em O(n), a partir dos mapas ordenados. Os autores dos artigos já devem estar ligados aos
+     * artigos. Como em {@link #adicionarArtigo(Artigo)}, um artigo com o título de outro anterior substitui-o.
+     *
+     * @param autores    os autores registados
+     * @param artigos    os artigos
+     * @param arquivados os autores arquivados, por ORCID
+     */
+    void carregar(List<Autor> autores, List<Artigo> artigos, Map<String, String> arquivados) {
+        long stamp = bloquearEscrita();
+        try {
+            if (!autoresPorID.isEmpty() || !artigosPorTitulo.isEmpty()) {
+                throw new IllegalStateException("A carga em massa só pode ser feita numa base vazia");
+            }
+            for (Autor autor : autores) {
+                if (autoresPorID.put(autor.getOrcid(), autor) == null) {
+                    verificador.autorRegistado(autor.getOrcid());
+                }
+                autoresPorNome.put(chaveNome(autor), autor);
+                indiceNomes.adicionar(autor);
+                indexarIdentificadores(autor);
+            }
+            Map<String, Artigo> porTitulo = new LinkedHashMap<>();
+            for (Artigo artigo : artigos) {
+                porTitulo.put(artigo.getTitulo(), artigo);
+            }
+            TreeMap<String, List<Autor>> autoresPorArtigo = new TreeMap<>();
+            for (Artigo artigo : porTitulo.values()) {
+                ChaveTemporal chave = new ChaveTemporal(artigo.getData(), proximoIdArtigo++);
+                chavesArtigos.put(artigo, chave);
+                artigosPorData.put(chave, artigo);
+                artigosPorTitulo.put(artigo.getTitulo(), artigo);
+                List<Autor> autoresArtigo = artigo.getAutores();
+                for (Autor autor : autoresArtigo) {
+                    String orcid = autor.getOrcid();
+                    if (orcid != null) {
+                        artigosPorAutor.computeIfAbsent(orcid, o -> new ConcurrentSkipListMap<>()).put(chave, artigo);
+                    }
+                    verificador.referenciaAdicionada(orcid, registado(orcid));
+                }
+                autoresPorArtigo.put(artigo.getTitulo(), Collections.unmodifiableList(autoresArtigo));
+                synchronized (artigo) {
+                    artigo.setObservador(observador);
+                    indiceUso.adicionar(artigo, (int) chave.getId(), IndiceUso.diasComUso(artigo));
+                }
+                indiceTextual.adicionar(artigo);
+            }
+            autoresArquivados.putAll(arquivados);
 
-        // Seleciona os Top-3
-        List<Artigo> top3Artigos = new ArrayList<>();
-        for (int i = 0; i < 3; i++) {
-            top3Artigos.add(listaOrdenada.get(i).getKey());
+            versaoArtigosPorData = ArvorePersistente.deOrdenados(artigosPorData);
+            versaoAutoresPorNome = ArvorePersistente.deOrdenados(autoresPorNome);
+            versaoArtigosPorTitulo = ArvorePersistente.deOrdenados(new TreeMap<>(artigosPorTitulo));
+            versaoAutoresPorID = ArvorePersistente.deOrdenados(new TreeMap<>(autoresPorID));
+            TreeMap<String, ArvorePersistente<ChaveTemporal, Artigo>> porAutor = new TreeMap<>();
+            for (Map.Entry<String, ConcurrentSkipListMap<ChaveTemporal, Artigo>> entrada : artigosPorAutor.entrySet()) {
+                porAutor.put(entrada.getKey(), ArvorePersistente.deOrdenados(entrada.getValue()));
+            }
+            versaoArtigosPorAutor = ArvorePersistente.deOrdenados(porAutor);
+            versaoAutoresPorArtigo = ArvorePersistente.deOrdenados(autoresPorArtigo);
+            versaoPorPublicar = true;
+        } finally {
+            desbloquearEscrita(stamp);
         }
-
-        return top3Artigos;
     }
 
     /**
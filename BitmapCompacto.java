@@ -0,0 +1,392 @@
+package Projeto;
+
+import java.util.Arrays;
+
+/**
+ * Conjunto de inteiros não negativos comprimido, ao estilo dos bitmaps Roaring.
+ * Os valores são agrupados em blocos de 65536 pelos 16 bits mais altos. Cada bloco guarda os 16 bits mais baixos
+ * num array ordenado enquanto tem poucos elementos e num mapa de bits de 8 KB quando fica denso, pelo que o espaço
+ * ocupado acompanha o número de elementos e as uniões e interseções trabalham bloco a bloco.
+ */
+class BitmapCompacto {
+    /**
+     * Número de elementos a partir do qual um bloco passa a mapa de bits (4096 chars ocupam o mesmo que 1024 longs).
+     */
+    private static final int LIMITE_ARRAY = 4096;
+    private static final int PALAVRAS_BLOCO = 1024;
+
+    private char[] chaves;
+    private Object[] blocos;
+    private int[] cardinalidades;
+    private int numeroBlocos;
+
+    /**
+     * Construtor da classe BitmapCompacto.
+     * Inicializa um conjunto vazio.
+     */
+    public BitmapCompacto() {
+        this.chaves = new char[4];
+        this.blocos = new Object[4];
+        this.cardinalidades = new int[4];
+    }
+
+    /**
+     * Obtém o número de elementos do conjunto.
+     *
+     * @return a cardinalidade do conjunto
+     */
+    public int cardinalidade() {
+        int total = 0;
+        for (int i = 0; i < numeroBlocos; i++) {
+            total += cardinalidades[i];
+        }
+        return total;
+    }
+
+    /**
+     * Verifica se o conjunto está vazio.
+     *
+     * @return true se o conjunto não tiver elementos
+     */
+    public boolean vazio() {
+        return numeroBlocos == 0;
+    }
+
+    /**
+     * Verifica se um valor pertence ao conjunto.
+     *
+     * @param valor o valor
+     * @return true se o valor pertencer ao conjunto
+     */
+    public boolean contem(int valor) {
+        int i = procurarBloco((char) (valor >>> 16));
+        if (i < 0) return false;
+        char baixo = (char) valor;
+        Object bloco = blocos[i];
+        if (bloco instanceof long[]) {
+            return (((long[]) bloco)[baixo >>> 6] & (1L << baixo)) != 0;
+        }
+        return Arrays.binarySearch((char[]) bloco, 0, cardinalidades[i], baixo) >= 0;
+    }
+
+    /**
+     * Acrescenta um valor ao conjunto.
+     *
+     * @param valor o valor, não negativo
+     */
+    public void adicionar(int valor) {
+        if (valor < 0) {
+            throw new IllegalArgumentException("Valor negativo: " + valor);
+        }
+        char alto = (char) (valor >>> 16);
+        char baixo = (char) valor;
+        int i = procurarBloco(alto);
+        if (i < 0) {
+            i = -(i + 1);
+            inserirBloco(i, alto, new char[4], 0);
+        }
+        Object bloco = blocos[i];
+        if (bloco instanceof long[]) {
+            long[] palavras = (long[]) bloco;
+            long mascara = 1L << baixo;
+            if ((palavras[baixo >>> 6] & mascara) == 0) {
+                palavras[baixo >>> 6] |= mascara;
+                cardinalidades[i]++;
+            }
+            return;
+        }
+        char[] valores = (char[]) bloco;
+        int n = cardinalidades[i];
+        int posicao = Arrays.binarySearch(valores, 0, n, baixo);
+        if (posicao >= 0) return;
+        posicao = -(posicao + 1);
+        if (n == LIMITE_ARRAY) {
+            long[] palavras = paraPalavras(valores, n);
+            palavras[baixo >>> 6] |= 1L << baixo;
+            blocos[i] = palavras;
+            cardinalidades[i] = n + 1;
+            return;
+        }
+        if (n == valores.length) {
+            valores = Arrays.copyOf(valores, Math.min(LIMITE_ARRAY, n * 2));
+            blocos[i] = valores;
+        }
+        System.arraycopy(valores, posicao, valores, posicao + 1, n - posicao);
+        valores[posicao] = baixo;
+        cardinalidades[i] = n + 1;
+    }
+
+    /**
+     * Remove um valor do conjunto.
+     *
+     * @param valor o valor
+     */
+    public void remover(int valor) {
+        int i = procurarBloco((char) (valor >>> 16));
+        if (i < 0) return;
+        char baixo = (char) valor;
+        Object bloco = blocos[i];
+        if (bloco instanceof long[]) {
+            long[] palavras = (long[]) bloco;
+            long mascara = 1L << baixo;
+            if ((palavras[baixo >>> 6] & mascara) == 0) return;
+            palavras[baixo >>> 6] &= ~mascara;
+            if (--cardinalidades[i] <= LIMITE_ARRAY) {
+                blocos[i] = paraValores(palavras, cardinalidades[i]);
+            }
+        } else {
+            char[] valores = (char[]) bloco;
+            int n = cardinalidades[i];
+            int posicao = Arrays.binarySearch(valores, 0, n, baixo);
+            if (posicao < 0) return;
+            System.arraycopy(valores, posicao + 1, valores, posicao, n - posicao - 1);
+            cardinalidades[i] = n - 1;
+        }
+        if (cardinalidades[i] == 0) {
+            removerBloco(i);
+        }
+    }
+
+    /**
+     * Obtém a união deste conjunto com outro, sem alterar nenhum dos dois.
+     *
+     * @param outro o outro conjunto
+     * @return um novo conjunto com os elementos de ambos
+     */
+    public BitmapCompacto ou(BitmapCompacto outro) {
+        BitmapCompacto resultado = copia();
+        resultado.ouNoLocal(outro);
+        return resultado;
+    }
+
+    /**
+     * Acrescenta a este conjunto os elementos de outro, sem alterar o outro. Os blocos deste conjunto são alterados
+     * no próprio lugar e só os blocos que existem apenas no outro conjunto são copiados, pelo que unir vários
+     * conjuntos num único acumulador não copia a união acumulada em cada passo. Dois blocos em array são unidos
+     * por intercalação e só passam a mapa de bits se a união ultrapassar o limite dos arrays.
+     *
+     * @param outro o outro conjunto
+     */
+    public void ouNoLocal(BitmapCompacto outro) {
+        if (outro.numeroBlocos == 0) return;
+        int capacidade = Math.max(4, numeroBlocos + outro.numeroBlocos);
+        char[] novasChaves = new char[capacidade];
+        Object[] novosBlocos = new Object[capacidade];
+        int[] novasCardinalidades = new int[capacidade];
+        int i = 0, j = 0, n = 0;
+        while (i < numeroBlocos || j < outro.numeroBlocos) {
+            if (j == outro.numeroBlocos || (i < numeroBlocos && chaves[i] < outro.chaves[j])) {
+                novasChaves[n] = chaves[i];
+                novosBlocos[n] = blocos[i];
+                novasCardinalidades[n] = cardinalidades[i];
+                i++;
+            } else if (i == numeroBlocos || outro.chaves[j] < chaves[i]) {
+                novasChaves[n] = outro.chaves[j];
+                novosBlocos[n] = copiar(outro.blocos[j]);
+                novasCardinalidades[n] = outro.cardinalidades[j];
+                j++;
+            } else {
+                unirBloco(i, outro.blocos[j], outro.cardinalidades[j]);
+                novasChaves[n] = chaves[i];
+                novosBlocos[n] = blocos[i];
+                novasCardinalidades[n] = cardinalidades[i];
+                i++;
+                j++;
+            }
+            n++;
+        }
+        this.chaves = novasChaves;
+        this.blocos = novosBlocos;
+        this.cardinalidades = novasCardinalidades;
+        this.numeroBlocos = n;
+    }
+
+    /**
+     * Obtém a interseção deste conjunto com outro, sem alterar nenhum dos dois.
+     *
+     * @param outro o outro conjunto
+     * @return um novo conjunto com os elementos comuns
+     */
+    public BitmapCompacto e(BitmapCompacto outro) {
+        BitmapCompacto resultado = new BitmapCompacto();
+        int i = 0, j = 0;
+        while (i < numeroBlocos && j < outro.numeroBlocos) {
+            if (chaves[i] < outro.chaves[j]) {
+                i++;
+            } else if (outro.chaves[j] < chaves[i]) {
+                j++;
+            } else {
+                long[] palavras = palavras(blocos[i], cardinalidades[i]);
+                long[] outras = outro.palavras(outro.blocos[j], outro.cardinalidades[j]);
+                int cardinalidade = 0;
+                for (int p = 0; p < PALAVRAS_BLOCO; p++) {
+                    palavras[p] &= outras[p];
+                    cardinalidade += Long.bitCount(palavras[p]);
+                }
+                if (cardinalidade > 0) {
+                    resultado.acrescentarBloco(chaves[i], compactar(palavras, cardinalidade), cardinalidade);
+                }
+                i++;
+                j++;
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Obtém os elementos do conjunto por ordem crescente.
+     *
+     * @return um array ordenado com os elementos
+     */
+    public int[] paraArray() {
+        int[] resultado = new int[cardinalidade()];
+        int n = 0;
+        for (int i = 0; i < numeroBlocos; i++) {
+            int base = chaves[i] << 16;
+            Object bloco = blocos[i];
+            if (bloco instanceof long[]) {
+                long[] palavras = (long[]) bloco;
+                for (int p = 0; p < PALAVRAS_BLOCO; p++) {
+                    for (long palavra = palavras[p]; palavra != 0; palavra &= palavra - 1) {
+                        resultado[n++] = base | (p << 6) | Long.numberOfTrailingZeros(palavra);
+                    }
+                }
+            } else {
+                char[] valores = (char[]) bloco;
+                for (int v = 0; v < cardinalidades[i]; v++) {
+                    resultado[n++] = base | valores[v];
+                }
+            }
+        }
+        return resultado;
+    }
+
+    private BitmapCompacto copia() {
+        BitmapCompacto resultado = new BitmapCompacto();
+        int capacidade = Math.max(4, numeroBlocos);
+        resultado.chaves = Arrays.copyOf(chaves, capacidade);
+        resultado.cardinalidades = Arrays.copyOf(cardinalidades, capacidade);
+        resultado.blocos = new Object[capacidade];
+        for (int i = 0; i < numeroBlocos; i++) {
+            resultado.blocos[i] = copiar(blocos[i]);
+        }
+        resultado.numeroBlocos = numeroBlocos;
+        return resultado;
+    }
+
+    /**
+     * Junta ao bloco i deste conjunto os valores de um bloco com a mesma chave, escolhendo a representação do
+     * resultado: um mapa de bits recebe os valores no próprio lugar e dois arrays são intercalados.
+     */
+    private void unirBloco(int i, Object outroBloco, int outraCardinalidade) {
+        Object bloco = blocos[i];
+        if (bloco instanceof long[] || outroBloco instanceof long[]) {
+            long[] palavras = bloco instanceof long[] ? (long[]) bloco : ((long[]) outroBloco).clone();
+            Object restante = bloco instanceof long[] ? outroBloco : bloco;
+            int n = bloco instanceof long[] ? outraCardinalidade : cardinalidades[i];
+            if (restante instanceof long[]) {
+                long[] outras = (long[]) restante;
+                for (int p = 0; p < PALAVRAS_BLOCO; p++) {
+                    palavras[p] |= outras[p];
+                }
+            } else {
+                char[] valores = (char[]) restante;
+                for (int v = 0; v < n; v++) {
+                    palavras[valores[v] >>> 6] |= 1L << valores[v];
+                }
+            }
+            int cardinalidade = 0;
+            for (long palavra : palavras) {
+                cardinalidade += Long.bitCount(palavra);
+            }
+            blocos[i] = palavras;
+            cardinalidades[i] = cardinalidade;
+            return;
+        }
+        char[] valores = (char[]) bloco;
+        char[] outros = (char[]) outroBloco;
+        int n = cardinalidades[i];
+        char[] unidos = new char[n + outraCardinalidade];
+        int a = 0, b = 0, k = 0;
+        while (a < n && b < outraCardinalidade) {
+            char x = valores[a], y = outros[b];
+            unidos[k++] = x <= y ? x : y;
+            if (x <= y) a++;
+            if (y <= x) b++;
+        }
+        while (a < n) unidos[k++] = valores[a++];
+        while (b < outraCardinalidade) unidos[k++] = outros[b++];
+        blocos[i] = k > LIMITE_ARRAY ? paraPalavras(unidos, k) : unidos;
+        cardinalidades[i] = k;
+    }
+
+    private int procurarBloco(char alto) {
+        return Arrays.binarySearch(chaves, 0, numeroBlocos, alto);
+    }
+
+    private void inserirBloco(int posicao, char alto, Object bloco, int cardinalidade) {
+        if (numeroBlocos == chaves.length) {
+            chaves = Arrays.copyOf(chaves, numeroBlocos * 2);
+            blocos = Arrays.copyOf(blocos, numeroBlocos * 2);
+            cardinalidades = Arrays.copyOf(cardinalidades, numeroBlocos * 2);
+        }
+        System.arraycopy(chaves, posicao, chaves, posicao + 1, numeroBlocos - posicao);
+        System.arraycopy(blocos, posicao, blocos, posicao + 1, numeroBlocos - posicao);
+        System.arraycopy(cardinalidades, posicao, cardinalidades, posicao + 1, numeroBlocos - posicao);
+        chaves[posicao] = alto;
+        blocos[posicao] = bloco;
+        cardinalidades[posicao] = cardinalidade;
+        numeroBlocos++;
+    }
+
+    private void acrescentarBloco(char alto, Object bloco, int cardinalidade) {
+        inserirBloco(numeroBlocos, alto, bloco, cardinalidade);
+    }
+
+    private void removerBloco(int posicao) {
+        System.arraycopy(chaves, posicao + 1, chaves, posicao, numeroBlocos - posicao - 1);
+        System.arraycopy(blocos, posicao + 1, blocos, posicao, numeroBlocos - posicao - 1);
+        System.arraycopy(cardinalidades, posicao + 1, cardinalidades, posicao, numeroBlocos - posicao - 1);
+        blocos[--numeroBlocos] = null;
+    }
+
+    /**
+     * Obtém uma cópia de um bloco em forma de mapa de bits, qualquer que seja a sua representação.
+     */
+    private long[] palavras(Object bloco, int cardinalidade) {
+        if (bloco instanceof long[]) {
+            return ((long[]) bloco).clone();
+        }
+        return paraPalavras((char[]) bloco, cardinalidade);
+    }
+
+    private static Object copiar(Object bloco) {
+        return bloco instanceof long[] ? ((long[]) bloco).clone() : ((char[]) bloco).clone();
+    }
+
+    /**
+     * Escolhe a representação mais pequena para um bloco resultante de uma operação.
+     */
+    private static Object compactar(long[] palavras, int cardinalidade) {
+        return cardinalidade > LIMITE_ARRAY ? palavras : paraValores(palavras, cardinalidade);
+    }
+
+    private static long[] paraPalavras(char[] valores, int n) {
+        long[] palavras = new long[PALAVRAS_BLOCO];
+        for (int v = 0; v < n; v++) {
+            palavras[valores[v] >>> 6] |= 1L << valores[v];
+        }
+        return palavras;
+    }
+
+    private static char[] paraValores(long[] palavras, int cardinalidade) {
+        char[] valores = new char[Math.max(cardinalidade, 4)];
+        int n = 0;
+        for (int p = 0; p < PALAVRAS_BLOCO; p++) {
+            for (long palavra = palavras[p]; palavra != 0; palavra &= palavra - 1) {
+                valores[n++] = (char) ((p << 6) | Long.numberOfTrailingZeros(palavra));
+            }
+        }
+        return valores;
+    }
+}
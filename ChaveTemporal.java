@@ -0,0 +1,85 @@
+package Projeto;
+
+import java.util.Date;
+
+/**
+ * Chave composta usada nos índices temporais de artigos: a data de publicação seguida de um identificador
+ * estável do artigo. Permite guardar vários artigos com a mesma data numa árvore ordenada sem que se sobreponham.
+ */
+final class ChaveTemporal implements Comparable<ChaveTemporal> {
+    private final long data;
+    private final long id;
+
+    /**
+     * Construtor da classe ChaveTemporal.
+     *
+     * @param data a data de publicação
+     * @param id   o identificador estável do artigo
+     */
+    ChaveTemporal(Date data, long id) {
+        this.data = data.getTime();
+        this.id = id;
+    }
+
+    /**
+     * Obtém a menor chave possível para uma data, útil como limite inferior de um intervalo.
+     *
+     * @param data a data
+     * @return a menor chave com essa data
+     */
+    static ChaveTemporal inicio(Date data) {
+        return new ChaveTemporal(data, Long.MIN_VALUE);
+    }
+
+    /**
+     * Obtém a maior chave possível para uma data, útil como limite superior de um intervalo.
+     *
+     * @param data a data
+     * @return a maior chave com essa data
+     */
+    static ChaveTemporal fim(Date data) {
+        return new ChaveTemporal(data, Long.MAX_VALUE);
+    }
+
+    /**
+     * Obtém a data da chave.
+     *
+     * @return a data de publicação
+     */
+    Date getData() {
+        return new Date(data);
+    }
+
+    /**
+     * Obtém o identificador do artigo.
+     *
+     * @return o identificador estável do artigo
+     */
+    long getId() {
+        return id;
+    }
+
+    @Override
+    public int compareTo(ChaveTemporal outra) {
+        int cmp = Long.compare(data, outra.data);
+        return cmp != 0 ? cmp : Long.compare(id, outra.id);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ChaveTemporal)) return false;
+        ChaveTemporal outra = (ChaveTemporal) o;
+        return data == outra.data && id == outra.id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(data) * 31 + Long.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "ChaveTemporal{" + "data:" + getData() + "\t" + "id:" + id + '}';
+    }
+}
@@ -0,0 +1,221 @@
+package Projeto;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Constrói o grafo de citações e o grafo de colaborações a partir dos artigos de uma base de dados, numa única
+ * passagem em lote. Os artigos são repartidos em blocos processados em paralelo; cada bloco recolhe as suas arestas,
+ * codificadas como longs, num buffer primitivo próprio. As arestas são depois ordenadas em paralelo, agregadas e
+ * carregadas de uma só vez em grafos CSR com a capacidade final, sem cópias intermédias de grafos.
+ */
+final class ConstrutorGrafos {
+    private static final int TAMANHO_BLOCO = 1 << 12;
+
+    private ConstrutorGrafos() {
+    }
+
+    /**
+     * Constrói o grafo de citações dos artigos de uma base de dados. Os vértices seguem a ordem de
+     * {@link BaseDeDados#listarArtigos()}; são consideradas apenas as referências a artigos da base e cada
+     * citação repetida é contada uma vez.
+     *
+     * @param base a base de dados
+     * @return o grafo de citações
+     */
+    static GrafoArtigos construirGrafoArtigos(BaseDeDados base) {
+        return construirGrafoArtigos(base.listarArtigos());
+    }
+
+    /**
+     * Constrói o grafo de citações de uma lista de artigos, pela ordem da lista.
+     *
+     * @param artigos os artigos, sem repetições
+     * @return o grafo de citações
+     */
+    static GrafoArtigos construirGrafoArtigos(List<Artigo> artigos) {
+        Map<Artigo, Integer> indices = indexar(artigos);
+        long[] arestas = recolher(artigos.size(), (inicio, fim, buffer) -> {
+            for (int v = inicio; v < fim; v++) {
+                for (Artigo citado : artigos.get(v).getReferencias()) {
+                    Integer w = indices.get(citado);
+                    if (w != null) {
+                        buffer.acrescentar(((long) v << 32) | w);
+                    }
+                }
+            }
+        });
+        int distintas = ordenarSemRepeticoes(arestas);
+        DigrafoCSR grafo = new DigrafoCSR(artigos.size(), distintas);
+        for (int v = 0; v < artigos.size(); v++) {
+            grafo.adicionarVertice();
+        }
+        for (int e = 0; e < distintas; e++) {
+            grafo.adicionarAresta((int) (arestas[e] >>> 32), (int) arestas[e]);
+        }
+        grafo.compactar();
+        return new GrafoArtigos(artigos, grafo);
+    }
+
+    /**
+     * Constrói o grafo de colaborações dos autores de uma base de dados. Os vértices são os autores registados,
+     * por ordem de nome, seguidos dos autores de artigos que não estão registados. Cada par de autores de um artigo
+     * conta como uma colaboração, pesada pelo número de artigos que partilham.
+     *
+     * @param base a base de dados
+     * @return o grafo de colaborações
+     */
+    static GrafoAutores construirGrafoAutores(BaseDeDados base) {
+        return construirGrafoAutores(base.listarArtigos(), base.listarAutores());
+    }
+
+    /**
+     * Constrói o grafo de colaborações dos autores de uma lista de artigos. Os vértices são os autores indicados,
+     * pela ordem da lista, seguidos dos autores dos artigos que não constam da lista.
+     *
+     * @param artigos os artigos, sem repetições
+     * @param autores os autores registados; a lista é alterada com os autores acrescentados
+     * @return o grafo de colaborações
+     */
+    static GrafoAutores construirGrafoAutores(List<Artigo> artigos, List<Autor> autores) {
+        List<List<Autor>> autoresArtigos = new ArrayList<>(artigos.size());
+        for (Artigo artigo : artigos) {
+            autoresArtigos.add(artigo.getAutores());
+        }
+        return construirGrafoAutores(artigos, autoresArtigos, autores);
+    }
+
+    /**
+     * Constrói o grafo de colaborações de uma lista de artigos com os autores indicados para cada artigo, em vez
+     * dos autores atuais dos artigos. É usado pelas versões da base, que fixam os autores de cada artigo.
+     *
+     * @param artigos        os artigos, sem repetições
+     * @param autoresArtigos os autores de cada artigo, pela ordem dos artigos
+     * @param autores        os autores registados; a lista é alterada com os autores acrescentados
+     * @return o grafo de colaborações
+     */
+    static GrafoAutores construirGrafoAutores(List<Artigo> artigos, List<List<Autor>> autoresArtigos,
+                                              List<Autor> autores) {
+        Map<Autor, Integer> indices = indexar(autores);
+        int[][] autoresPorArtigo = new int[artigos.size()][];
+        for (int a = 0; a < artigos.size(); a++) {
+            List<Autor> autoresArtigo = autoresArtigos.get(a);
+            int[] ids = new int[autoresArtigo.size()];
+            for (int i = 0; i < ids.length; i++) {
+                Autor autor = autoresArtigo.get(i);
+                Integer id = indices.get(autor);
+                if (id == null) {
+                    id = autores.size();
+                    autores.add(autor);
+                    indices.put(autor, id);
+                }
+                ids[i] = id;
+            }
+            autoresPorArtigo[a] = ids;
+        }
+        long[] pares = recolher(artigos.size(), (inicio, fim, buffer) -> {
+            for (int a = inicio; a < fim; a++) {
+                int[] ids = autoresPorArtigo[a];
+                for (int i = 0; i < ids.length; i++) {
+                    for (int j = i + 1; j < ids.length; j++) {
+                        if (ids[i] != ids[j]) {
+                            buffer.acrescentar(GrafoAutores.par(ids[i], ids[j]));
+                        }
+                    }
+                }
+            }
+        });
+        Arrays.parallelSort(pares);
+        int distintos = 0;
+        for (int e = 0; e < pares.length; e++) {
+            if (e == 0 || pares[e] != pares[e - 1]) distintos++;
+        }
+        DigrafoCSR grafo = new DigrafoCSR(autores.size(), 2 * distintos);
+        MapaLongInt pesos = new MapaLongInt(distintos);
+        for (int v = 0; v < autores.size(); v++) {
+            grafo.adicionarVertice();
+        }
+        for (int e = 0; e < pares.length; ) {
+            int fim = e;
+            while (fim < pares.length && pares[fim] == pares[e]) fim++;
+            int v = (int) (pares[e] >>> 32);
+            int w = (int) pares[e];
+            grafo.adicionarAresta(v, w);
+            grafo.adicionarAresta(w, v);
+            pesos.incrementar(pares[e], fim - e);
+            e = fim;
+        }
+        grafo.compactar();
+        return new GrafoAutores(autores, grafo, pesos, new HashSet<>(artigos));
+    }
+
+    /**
+     * Trabalho de um bloco: acrescenta ao buffer as arestas dos elementos entre inicio (inclusive) e fim (exclusive).
+     */
+    private interface Recolha {
+        void recolher(int inicio, int fim, BufferLongs buffer);
+    }
+
+    /**
+     * Reparte os elementos em blocos, recolhe as arestas de cada bloco em paralelo e junta-as num único array.
+     */
+    private static long[] recolher(int numeroElementos, Recolha recolha) {
+        int numeroBlocos = (numeroElementos + TAMANHO_BLOCO - 1) / TAMANHO_BLOCO;
+        BufferLongs[] buffers = new BufferLongs[numeroBlocos];
+        IntStream.range(0, numeroBlocos).parallel().forEach(b -> {
+            BufferLongs buffer = new BufferLongs();
+            recolha.recolher(b * TAMANHO_BLOCO, Math.min(numeroElementos, (b + 1) * TAMANHO_BLOCO), buffer);
+            buffers[b] = buffer;
+        });
+        int total = 0;
+        for (BufferLongs buffer : buffers) {
+            total += buffer.tamanho;
+        }
+        long[] resultado = new long[total];
+        int posicao = 0;
+        for (BufferLongs buffer : buffers) {
+            System.arraycopy(buffer.valores, 0, resultado, posicao, buffer.tamanho);
+            posicao += buffer.tamanho;
+        }
+        return resultado;
+    }
+
+    /**
+     * Ordena um array e move os valores distintos para o início.
+     *
+     * @return o número de valores distintos
+     */
+    private static int ordenarSemRepeticoes(long[] valores) {
+        Arrays.parallelSort(valores);
+        int distintos = 0;
+        for (int i = 0; i < valores.length; i++) {
+            if (i == 0 || valores[i] != valores[distintos - 1]) {
+                valores[distintos++] = valores[i];
+            }
+        }
+        return distintos;
+    }
+
+    private static <T> Map<T, Integer> indexar(List<T> elementos) {
+        Map<T, Integer> indices = new HashMap<>(elementos.size() * 4 / 3 + 1);
+        for (int i = 0; i < elementos.size(); i++) {
+            indices.put(elementos.get(i), i);
+        }
+        return indices;
+    }
+
+    /**
+     * Buffer de longs que cresce por duplicação, usado por cada bloco para recolher as suas arestas.
+     */
+    private static final class BufferLongs {
+        private long[] valores = new long[64];
+        private int tamanho;
+
+        void acrescentar(long valor) {
+            if (tamanho == valores.length) {
+                valores = Arrays.copyOf(valores, tamanho * 2);
+            }
+            valores[tamanho++] = valor;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package Projeto;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Tabela de símbolos partilhada que associa cada texto distinto a um identificador inteiro pequeno.
+ * Permite que valores muito repetidos (filiações, palavras-chave) sejam guardados uma única vez em memória,
+ * ficando os objetos do modelo apenas com o identificador.
+ */
+final class Dicionario {
+    /**
+     * Dicionário das filiações dos autores.
+     */
+    static final Dicionario FILIACOES = new Dicionario();
+    /**
+     * Dicionário das palavras-chave dos artigos.
+     */
+    static final Dicionario PALAVRAS_CHAVE = new Dicionario();
+
+    /**
+     * Identificador usado para representar a ausência de valor (null).
+     */
+    static final int NENHUM = -1;
+
+    private final HashMap<String, Integer> identificadores;
+    private volatile String[] simbolos;
+    private int tamanho;
+
+    /**
+     * Construtor da classe Dicionario.
+     * Inicializa um dicionário vazio.
+     */
+    Dicionario() {
+        this.identificadores = new HashMap<>();
+        this.simbolos = new String[16];
+    }
+
+    /**
+     * Obtém o identificador de um texto, registando-o se ainda não existir.
+     *
+     * @param simbolo o texto
+     * @return o identificador do texto, ou {@link #NENHUM} se o texto for null
+     */
+    synchronized int identificador(String simbolo) {
+        if (simbolo == null) return NENHUM;
+        Integer id = identificadores.get(simbolo);
+        if (id != null) return id;
+        String[] atuais = simbolos;
+        if (tamanho == atuais.length) {
+            atuais = Arrays.copyOf(atuais, tamanho * 2);
+        }
+        atuais[tamanho] = simbolo;
+        simbolos = atuais;
+        identificadores.put(simbolo, tamanho);
+        return tamanho++;
+    }
+
+    /**
+     * Obtém o texto associado a um identificador.
+     *
+     * @param id o identificador
+     * @return o texto, ou null se o identificador for {@link #NENHUM}
+     */
+    String simbolo(int id) {
+        return id == NENHUM ? null : simbolos[id];
+    }
+
+    /**
+     * Obtém o número de textos distintos registados.
+     *
+     * @return o número de símbolos do dicionário
+     */
+    synchronized int tamanho() {
+        return tamanho;
+    }
+}
@@ -0,0 +1,335 @@
+package Projeto;
+
+import java.util.Arrays;
+
+/**
+ * Grafo direcionado incremental, otimizado para cargas em massa.
+ * As escritas são feitas em arrays primitivos de arestas que crescem por duplicação (custo amortizado O(1)
+ * por vértice ou aresta). As leituras usam uma representação compacta CSR (compressed sparse row) das arestas
+ * compactadas, mais um delta com as arestas acrescentadas desde a última compactação, guardado por vértice.
+ * É mantido também o índice inverso (arestas de entrada), para que os predecessores de um vértice
+ * sejam obtidos em O(grau de entrada).
+ *
+ * <p>A primeira leitura depois de escritas acrescenta ao delta as arestas novas, em O(arestas novas); só quando o
+ * delta ultrapassa metade do tamanho da parte compactada é que a representação CSR é reconstruída, em O(V+E).
+ * Uma carga que alterna escritas e leituras tem assim custo amortizado O(1) por aresta, e uma carga em massa seguida
+ * de leituras faz uma única reconstrução.</p>
+ *
+ * <p>As leituras podem ser feitas por várias threads em simultâneo, desde que nenhuma thread esteja a escrever:
+ * a indexação das arestas novas é feita uma só vez, com um bloqueio, e publicada às restantes leituras.</p>
+ */
+class DigrafoCSR {
+    private static final int CAPACIDADE_INICIAL = 16;
+
+    private int numeroVertices;
+    private int numeroArestas;
+    private int[] origens;
+    private int[] destinos;
+    private int[] grausSaida;
+    private int[] grausEntrada;
+
+    private int[] inicioAdj;
+    private int[] adjacentes;
+    private int[] inicioAdjInverso;
+    private int[] adjacentesInversos;
+    private int verticesCompactados;
+    private int arestasCompactadas;
+
+    private int[][] deltaSaida;
+    private int[][] deltaEntrada;
+    private int[] tamanhoDeltaSaida;
+    private int[] tamanhoDeltaEntrada;
+    private volatile int arestasIndexadas;
+
+    /**
+     * Construtor da classe DigrafoCSR.
+     * Inicializa um grafo sem vértices nem arestas.
+     */
+    public DigrafoCSR() {
+        this(CAPACIDADE_INICIAL, CAPACIDADE_INICIAL);
+    }
+
+    /**
+     * Construtor da classe DigrafoCSR com capacidades iniciais, para evitar realocações quando o tamanho final
+     * é conhecido.
+     *
+     * @param capacidadeVertices o número de vértices previsto
+     * @param capacidadeArestas  o número de arestas previsto
+     */
+    public DigrafoCSR(int capacidadeVertices, int capacidadeArestas) {
+        this.origens = new int[Math.max(capacidadeArestas, 1)];
+        this.destinos = new int[origens.length];
+        this.grausSaida = new int[Math.max(capacidadeVertices, 1)];
+        this.grausEntrada = new int[grausSaida.length];
+        this.inicioAdj = new int[1];
+        this.adjacentes = new int[0];
+        this.inicioAdjInverso = new int[1];
+        this.adjacentesInversos = new int[0];
+        this.deltaSaida = new int[0][];
+        this.deltaEntrada = new int[0][];
+        this.tamanhoDeltaSaida = new int[0];
+        this.tamanhoDeltaEntrada = new int[0];
+    }
+
+    /**
+     * Obtém o número de vértices do grafo.
+     *
+     * @return o número de vértices
+     */
+    public int V() {
+        return numeroVertices;
+    }
+
+    /**
+     * Obtém o número de arestas do grafo.
+     *
+     * @return o número de arestas
+     */
+    public int E() {
+        return numeroArestas;
+    }
+
+    /**
+     * Adiciona um novo vértice ao grafo.
+     *
+     * @return o índice do vértice adicionado
+     */
+    public int adicionarVertice() {
+        if (numeroVertices == grausSaida.length) {
+            grausSaida = Arrays.copyOf(grausSaida, grausSaida.length * 2);
+            grausEntrada = Arrays.copyOf(grausEntrada, grausEntrada.length * 2);
+        }
+        return numeroVertices++;
+    }
+
+    /**
+     * Adiciona uma aresta dirigida de v para w.
+     *
+     * @param v o vértice de origem
+     * @param w o vértice de destino
+     */
+    public void adicionarAresta(int v, int w) {
+        validarVertice(v);
+        validarVertice(w);
+        if (numeroArestas == origens.length) {
+            origens = Arrays.copyOf(origens, origens.length * 2);
+            destinos = Arrays.copyOf(destinos, destinos.length * 2);
+        }
+        origens[numeroArestas] = v;
+        destinos[numeroArestas] = w;
+        numeroArestas++;
+        grausSaida[v]++;
+        grausEntrada[w]++;
+    }
+
+    /**
+     * Obtém o grau de saída de um vértice, sem necessidade de compactar o grafo.
+     *
+     * @param v o vértice
+     * @return o número de arestas que saem de v
+     */
+    public int grauSaida(int v) {
+        validarVertice(v);
+        return grausSaida[v];
+    }
+
+    /**
+     * Obtém o grau de entrada de um vértice, sem necessidade de compactar o grafo.
+     *
+     * @param v o vértice
+     * @return o número de arestas que chegam a v
+     */
+    public int grauEntrada(int v) {
+        validarVertice(v);
+        return grausEntrada[v];
+    }
+
+    /**
+     * Obtém o i-ésimo vizinho de saída de um vértice.
+     *
+     * @param v o vértice
+     * @param i a posição do vizinho, entre 0 e grauSaida(v) - 1
+     * @return o vértice de destino da i-ésima aresta que sai de v
+     */
+    public int adjacente(int v, int i) {
+        indexar();
+        int compactados = grauCompactado(inicioAdj, v);
+        return i < compactados ? adjacentes[inicioAdj[v] + i] : deltaSaida[v][i - compactados];
+    }
+
+    /**
+     * Obtém uma cópia dos vizinhos de saída de um vértice.
+     *
+     * @param v o vértice
+     * @return um array com os destinos das arestas que saem de v
+     */
+    public int[] adj(int v) {
+        validarVertice(v);
+        indexar();
+        return juntar(adjacentes, inicioAdj, deltaSaida, v, grausSaida[v]);
+    }
+
+    /**
+     * Obtém o i-ésimo predecessor de um vértice.
+     *
+     * @param v o vértice
+     * @param i a posição do predecessor, entre 0 e grauEntrada(v) - 1
+     * @return o vértice de origem da i-ésima aresta que chega a v
+     */
+    public int adjacenteInverso(int v, int i) {
+        indexar();
+        int compactados = grauCompactado(inicioAdjInverso, v);
+        return i < compactados ? adjacentesInversos[inicioAdjInverso[v] + i] : deltaEntrada[v][i - compactados];
+    }
+
+    /**
+     * Obtém uma cópia dos predecessores de um vértice.
+     *
+     * @param v o vértice
+     * @return um array com as origens das arestas que chegam a v
+     */
+    public int[] adjInverso(int v) {
+        validarVertice(v);
+        indexar();
+        return juntar(adjacentesInversos, inicioAdjInverso, deltaEntrada, v, grausEntrada[v]);
+    }
+
+    /**
+     * Obtém o subgrafo induzido por um conjunto de vértices: os vértices selecionados, renumerados pela ordem em que
+     * são indicados, e todas as arestas entre eles. Percorre apenas as listas de adjacência dos vértices selecionados.
+     *
+     * @param vertices os vértices selecionados, sem repetições
+     * @return um novo grafo com o subgrafo induzido; o vértice i corresponde a vertices[i]
+     */
+    DigrafoCSR subGrafoInduzido(int[] vertices) {
+        indexar();
+        int[] novoIndice = new int[numeroVertices];
+        Arrays.fill(novoIndice, -1);
+        int arestas = 0;
+        for (int i = 0; i < vertices.length; i++) {
+            validarVertice(vertices[i]);
+            novoIndice[vertices[i]] = i;
+            arestas += grausSaida[vertices[i]];
+        }
+        DigrafoCSR subGrafo = new DigrafoCSR(vertices.length, arestas);
+        for (int i = 0; i < vertices.length; i++) {
+            subGrafo.adicionarVertice();
+        }
+        for (int i = 0; i < vertices.length; i++) {
+            int v = vertices[i];
+            for (int e = 0; e < grausSaida[v]; e++) {
+                int w = novoIndice[adjacente(v, e)];
+                if (w >= 0) {
+                    subGrafo.adicionarAresta(i, w);
+                }
+            }
+        }
+        return subGrafo;
+    }
+
+    /**
+     * Reconstrói as representações CSR direta e inversa com todas as arestas, esvaziando o delta, se o grafo tiver
+     * arestas ou vértices que não estão na parte compactada. É chamado no fim das cargas em massa.
+     */
+    synchronized void compactar() {
+        if (arestasCompactadas == numeroArestas && verticesCompactados == numeroVertices) return;
+        int[] inicio = new int[numeroVertices + 1];
+        int[] resultado = new int[numeroArestas];
+        agrupar(origens, destinos, grausSaida, inicio, resultado);
+        int[] inicioInverso = new int[numeroVertices + 1];
+        int[] resultadoInverso = new int[numeroArestas];
+        agrupar(destinos, origens, grausEntrada, inicioInverso, resultadoInverso);
+        this.inicioAdj = inicio;
+        this.adjacentes = resultado;
+        this.inicioAdjInverso = inicioInverso;
+        this.adjacentesInversos = resultadoInverso;
+        this.deltaSaida = new int[0][];
+        this.deltaEntrada = new int[0][];
+        this.tamanhoDeltaSaida = new int[0];
+        this.tamanhoDeltaEntrada = new int[0];
+        this.verticesCompactados = numeroVertices;
+        this.arestasCompactadas = numeroArestas;
+        this.arestasIndexadas = numeroArestas;
+    }
+
+    /**
+     * Garante que todas as arestas estão na parte compactada ou no delta. As arestas novas são acrescentadas ao delta
+     * dos seus vértices; se o delta ficar maior do que metade da parte compactada, o grafo é compactado de novo.
+     */
+    private void indexar() {
+        if (arestasIndexadas == numeroArestas) return;
+        synchronized (this) {
+            int indexadas = arestasIndexadas;
+            if (indexadas == numeroArestas) return;
+            if (2L * (numeroArestas - arestasCompactadas) > Math.max(arestasCompactadas, verticesCompactados)) {
+                compactar();
+                return;
+            }
+            if (deltaSaida.length < numeroVertices) {
+                deltaSaida = Arrays.copyOf(deltaSaida, grausSaida.length);
+                deltaEntrada = Arrays.copyOf(deltaEntrada, grausEntrada.length);
+                tamanhoDeltaSaida = Arrays.copyOf(tamanhoDeltaSaida, grausSaida.length);
+                tamanhoDeltaEntrada = Arrays.copyOf(tamanhoDeltaEntrada, grausEntrada.length);
+            }
+            for (int e = indexadas; e < numeroArestas; e++) {
+                acrescentarDelta(deltaSaida, tamanhoDeltaSaida, origens[e], destinos[e]);
+                acrescentarDelta(deltaEntrada, tamanhoDeltaEntrada, destinos[e], origens[e]);
+            }
+            this.arestasIndexadas = numeroArestas;
+        }
+    }
+
+    private static void acrescentarDelta(int[][] delta, int[] tamanhos, int v, int vizinho) {
+        int[] vizinhos = delta[v];
+        if (vizinhos == null) {
+            vizinhos = new int[4];
+            delta[v] = vizinhos;
+        } else if (tamanhos[v] == vizinhos.length) {
+            vizinhos = Arrays.copyOf(vizinhos, vizinhos.length * 2);
+            delta[v] = vizinhos;
+        }
+        vizinhos[tamanhos[v]++] = vizinho;
+    }
+
+    /**
+     * Obtém o número de arestas de um vértice que estão na parte compactada.
+     */
+    private int grauCompactado(int[] inicio, int v) {
+        return v < verticesCompactados ? inicio[v + 1] - inicio[v] : 0;
+    }
+
+    /**
+     * Copia os vizinhos de um vértice da parte compactada e do delta para um novo array.
+     */
+    private int[] juntar(int[] compactados, int[] inicio, int[][] delta, int v, int grau) {
+        int n = grauCompactado(inicio, v);
+        int[] resultado = new int[grau];
+        if (n > 0) {
+            System.arraycopy(compactados, inicio[v], resultado, 0, n);
+        }
+        if (grau > n) {
+            System.arraycopy(delta[v], 0, resultado, n, grau - n);
+        }
+        return resultado;
+    }
+
+    /**
+     * Agrupa as arestas pela chave indicada com uma ordenação por contagem estável,
+     * preservando a ordem de inserção das arestas de cada vértice.
+     */
+    private void agrupar(int[] chaves, int[] valores, int[] graus, int[] inicio, int[] resultado) {
+        for (int v = 0; v < numeroVertices; v++) {
+            inicio[v + 1] = inicio[v] + graus[v];
+        }
+        int[] proxima = Arrays.copyOf(inicio, numeroVertices);
+        for (int e = 0; e < numeroArestas; e++) {
+            resultado[proxima[chaves[e]]++] = valores[e];
+        }
+    }
+
+    private void validarVertice(int v) {
+        if (v < 0 || v >= numeroVertices) {
+            throw new IllegalArgumentException("Vértice " + v + " não está entre 0 e " + (numeroVertices - 1));
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package Projeto;
+/**
+ * Enumeração que representa os níveis de durabilidade do registo de operações da base de dados.
+ */
+public enum Durabilidade {
+    /**
+     * Cada operação só termina depois de estar gravada em disco. Operações concorrentes partilham a mesma
+     * sincronização com o disco (group commit).
+     */
+    SINCRONA,
+    /**
+     * As operações são gravadas em disco em lotes, periodicamente, por uma thread de fundo.
+     * Uma falha pode perder as operações do último intervalo.
+     */
+    PERIODICA
+}
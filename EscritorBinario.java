@@ -0,0 +1,115 @@
+package Projeto;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Escreve valores primitivos e textos num {@link FileChannel}, através de um buffer direto que só é
+ * enviado para o canal quando fica cheio ou quando é descarregado explicitamente.
+ */
+final class EscritorBinario implements Closeable {
+    private static final int TAMANHO_BUFFER = 1 << 20;
+
+    private final FileChannel canal;
+    private final ByteBuffer buffer;
+
+    /**
+     * Construtor da classe EscritorBinario.
+     *
+     * @param canal o canal onde os dados serão escritos
+     */
+    EscritorBinario(FileChannel canal) {
+        this.canal = canal;
+        this.buffer = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+    }
+
+    /**
+     * Escreve um byte.
+     *
+     * @param valor o valor a escrever
+     * @throws IOException se ocorrer um erro de escrita
+     */
+    void escreverByte(int valor) throws IOException {
+        garantir(1);
+        buffer.put((byte) valor);
+    }
+
+    /**
+     * Escreve um inteiro de 32 bits.
+     *
+     * @param valor o valor a escrever
+     * @throws IOException se ocorrer um erro de escrita
+     */
+    void escreverInt(int valor) throws IOException {
+        garantir(4);
+        buffer.putInt(valor);
+    }
+
+    /**
+     * Escreve um inteiro de 64 bits.
+     *
+     * @param valor o valor a escrever
+     * @throws IOException se ocorrer um erro de escrita
+     */
+    void escreverLong(long valor) throws IOException {
+        garantir(8);
+        buffer.putLong(valor);
+    }
+
+    /**
+     * Escreve um texto em UTF-8, precedido do seu comprimento em bytes (-1 para null).
+     *
+     * @param texto o texto a escrever
+     * @throws IOException se ocorrer um erro de escrita
+     */
+    void escreverTexto(String texto) throws IOException {
+        if (texto == null) {
+            escreverInt(-1);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        escreverInt(bytes.length);
+        if (bytes.length > buffer.capacity()) {
+            descarregar();
+            ByteBuffer direto = ByteBuffer.wrap(bytes);
+            while (direto.hasRemaining()) {
+                canal.write(direto);
+            }
+            return;
+        }
+        garantir(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Envia para o canal todos os dados ainda no buffer.
+     *
+     * @throws IOException se ocorrer um erro de escrita
+     */
+    void descarregar() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Descarrega o buffer. O canal não é fechado, ficando a cargo de quem o abriu.
+     *
+     * @throws IOException se ocorrer um erro de escrita
+     */
+    @Override
+    public void close() throws IOException {
+        descarregar();
+    }
+
+    private void garantir(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            descarregar();
+        }
+    }
+}
@@ -1,14 +1,12 @@
 package Projeto;
-import edu.princeton.cs.algs4.*;
-import edu.princeton.cs.algs4.Queue;
-
 import java.util.*;
 
 /**
  * Representa um grafo direcionado de artigos, onde os nós são artigos e as arestas representam citações entre artigos.
+ * O grafo é guardado num {@link DigrafoCSR}, pelo que adicionar artigos e citações tem custo amortizado O(1).
  */
 class GrafoArtigos {
-    private Digraph grafo;
+    private DigrafoCSR grafo;
     private Map<Artigo, Integer> indices;
     private List<Artigo> artigos;
 
@@ -17,11 +15,26 @@ class GrafoArtigos {
      * Inicializa um grafo vazio, um mapa de índices e uma lista de artigos.
      */
     public GrafoArtigos() {
-        this.grafo = new Digraph(0);
+        this.grafo = new DigrafoCSR();
         this.indices = new HashMap<>();
         this.artigos = new ArrayList<>();
     }
 
+    /**
+     * Construtor de um grafo já construído, usado para extrair subgrafos e para construções em lote.
+     *
+     * @param artigos os artigos, pela ordem dos vértices do grafo
+     * @param grafo   o grafo de citações entre os artigos
+     */
+    GrafoArtigos(List<Artigo> artigos, DigrafoCSR grafo) {
+        this.grafo = grafo;
+        this.indices = new HashMap<>();
+        this.artigos = artigos;
+        for (int v = 0; v < artigos.size(); v++) {
+            indices.put(artigos.get(v), v);
+        }
+    }
+
     /**
      * Adiciona um artigo ao grafo. Se o artigo já estiver no grafo, não faz nada.
      *
@@ -29,29 +42,28 @@ class GrafoArtigos {
      */
     public void adicionarArtigo(Artigo artigo) {
         if (!indices.containsKey(artigo)) {
-            int index = artigos.size();
+            int index = grafo.adicionarVertice();
             artigos.add(artigo);
             indices.put(artigo, index);
-            Digraph novoGrafo = new Digraph(artigos.size());
-            for (int v = 0; v < grafo.V(); v++) {
-                for (int w : grafo.adj(v)) {
-                    novoGrafo.addEdge(v, w);
-                }
-            }
-            this.grafo = novoGrafo;
         }
     }
 
     /**
-     * Adiciona uma citação de um artigo para outro no grafo.
+     * Adiciona uma citação de um artigo para outro no grafo. Tal como na construção em lote
+     * ({@link ConstrutorGrafos#construirGrafoArtigos(List)}), uma citação repetida é contada uma vez: se o grafo já
+     * tiver a citação, não faz nada. A verificação percorre as citações feitas pelo artigo, em O(grau de saída).
      *
      * @param de o artigo que faz a citação
      * @param para o artigo citado
      */
     public void adicionarCitacao(Artigo de, Artigo para) {
-        if (indices.containsKey(de) && indices.containsKey(para)) {
-            grafo.addEdge(indices.get(de), indices.get(para));
+        Integer v = indices.get(de);
+        Integer w = indices.get(para);
+        if (v == null || w == null) return;
+        for (int i = 0; i < grafo.grauSaida(v); i++) {
+            if (grafo.adjacente(v, i) == w) return;
         }
+        grafo.adicionarAresta(v, w);
     }
 
     /**
@@ -61,18 +73,24 @@ class GrafoArtigos {
      * @return a lista de artigos que citam o artigo especificado
      */
     public List<Artigo> getCitacoes(Artigo artigo) {
-        List<Artigo> citacoes = new ArrayList<>();
         int index = indices.get(artigo);
-        for (int v = 0; v < grafo.V(); v++) {
-            for (int w : grafo.adj(v)) {
-                if (w == index) {
-                    citacoes.add(artigos.get(v));
-                }
-            }
+        List<Artigo> citacoes = new ArrayList<>(grafo.grauEntrada(index));
+        for (int i = 0; i < grafo.grauEntrada(index); i++) {
+            citacoes.add(artigos.get(grafo.adjacenteInverso(index, i)));
         }
         return citacoes;
     }
 
+    /**
+     * Obtém o número de citações de um determinado artigo, sem construir a lista de artigos que o citam.
+     *
+     * @param artigo o artigo cujas citações serão contadas
+     * @return o número de artigos que citam o artigo especificado
+     */
+    public int getNCitacoes(Artigo artigo) {
+        return grafo.grauEntrada(indices.get(artigo));
+    }
+
     /**
      * Obtém as citacoes de primeira ordem um determinado artigo.
      *
@@ -80,7 +98,7 @@ class GrafoArtigos {
      * @return o numero de citacoes de primeira ordem do artigo
      */
     public int contarCitacoesDePrimeiraOrdem(Artigo artigo) {
-        return getCitacoes(artigo).size();
+        return getNCitacoes(artigo);
     }
 
     /**
@@ -91,9 +109,9 @@ class GrafoArtigos {
      */
     public int contarCitacoesDeSegundaOrdem(Artigo artigo) {
         int count = 0;
-        List<Artigo> citacoesPrimeiraOrdem = getCitacoes(artigo);
-        for (Artigo citado : citacoesPrimeiraOrdem) {
-            count += getCitacoes(citado).size();
+        int index = indices.get(artigo);
+        for (int i = 0; i < grafo.grauEntrada(index); i++) {
+            count += grafo.grauEntrada(grafo.adjacenteInverso(index, i));
         }
         return count;
     }
@@ -109,7 +127,7 @@ class GrafoArtigos {
         List<Autor> autores = artigo.getAutores();
         for (Artigo citado : getCitacoes(artigo)) {
             for (Autor autor : autores) {
-                if (citado.getAutores().contains(autor)) {
+                if (citado.contemAutor(autor)) {
                     count++;
                     break;
                 }
@@ -118,27 +136,57 @@ class GrafoArtigos {
         return count;
     }
 
+    /**
+     * Calcula, numa única passagem, as citações de primeira e segunda ordem e as autocitações de todos os artigos.
+     * Em grafos grandes o cálculo é repartido pelos núcleos disponíveis.
+     *
+     * @return as métricas de citação, indexadas pelo índice de cada artigo no grafo
+     */
+    public MetricasCitacoes calcularMetricasCitacoes() {
+        return MetricasCitacoes.calcular(grafo, artigos);
+    }
+
+    /**
+     * Obtém o índice de um artigo no grafo.
+     *
+     * @param artigo o artigo
+     * @return o índice do artigo, ou -1 se não estiver no grafo
+     */
+    public int getIndice(Artigo artigo) {
+        Integer index = indices.get(artigo);
+        return index == null ? -1 : index;
+    }
+
     /**
      * Obtém os artigos de um determinado tipo.
      *
      * @param tipo o tipo de publicação
-     * @return o subgrafo de artigos de um determinado tipo
+     * @return o subgrafo de artigos de um determinado tipo, com as citações entre eles
      */
     public GrafoArtigos subGrafoPorTipo(TipoPublicacao tipo) {
-        GrafoArtigos subGrafo = new GrafoArtigos();
-        for (Artigo artigo : artigos) {
-            if (artigo.getTipo() == tipo) {
-                subGrafo.adicionarArtigo(artigo);
+        int[] vertices = new int[artigos.size()];
+        int n = 0;
+        for (int v = 0; v < artigos.size(); v++) {
+            if (artigos.get(v).getTipo() == tipo) {
+                vertices[n++] = v;
             }
         }
-        for (Artigo artigo : subGrafo.artigos) {
-            for (Artigo citado : getCitacoes(artigo)) {
-                if (subGrafo.indices.containsKey(citado)) {
-                    subGrafo.adicionarCitacao(artigo, citado);
-                }
-            }
+        return subGrafoInduzido(Arrays.copyOf(vertices, n));
+    }
+
+    /**
+     * Cria o subgrafo induzido por um conjunto de vértices, com todas as citações entre eles.
+     * O custo é proporcional aos vértices selecionados e às suas arestas.
+     *
+     * @param vertices os vértices selecionados, sem repetições
+     * @return o subgrafo induzido
+     */
+    private GrafoArtigos subGrafoInduzido(int[] vertices) {
+        List<Artigo> selecionados = new ArrayList<>(vertices.length);
+        for (int v : vertices) {
+            selecionados.add(artigos.get(v));
         }
-        return subGrafo;
+        return new GrafoArtigos(selecionados, grafo.subGrafoInduzido(vertices));
     }
 
     /**
@@ -158,11 +206,22 @@ class GrafoArtigos {
         return true;
     }
 
-    private void dfs(int v, boolean[] marked) {
-        marked[v] = true;
-        for (int w : grafo.adj(v)) {
-            if (!marked[w]) {
-                dfs(w, marked);
+    /**
+     * Pesquisa em profundidade iterativa, com uma pilha explícita para não esgotar a pilha de chamadas em grafos grandes.
+     */
+    private void dfs(int origem, boolean[] marked) {
+        int[] pilha = new int[grafo.V()];
+        int topo = 0;
+        marked[origem] = true;
+        pilha[topo++] = origem;
+        while (topo > 0) {
+            int v = pilha[--topo];
+            for (int i = 0; i < grafo.grauSaida(v); i++) {
+                int w = grafo.adjacente(v, i);
+                if (!marked[w]) {
+                    marked[w] = true;
+                    pilha[topo++] = w;
+                }
             }
         }
     }
@@ -1,25 +1,54 @@
 package Projeto;
 
-import edu.princeton.cs.algs4.*;
-
 import java.util.*;
 
 /**
  * Representa um grafo não direcionado de autores, onde os nós são autores e as arestas representam colaborações entre autores.
+ * Cada par de colaboradores é guardado uma única vez, como um par de arcos opostos num {@link DigrafoCSR}, e o número
+ * de artigos que partilham fica num mapa primitivo indexado pelo par, pelo que colaborações repetidas não ocupam
+ * mais memória e o número de artigos comuns a dois autores é obtido em O(1). Só os artigos adicionados ao grafo
+ * contam para esse número; uma colaboração adicionada diretamente cria apenas a aresta.
  */
 class GrafoAutores {
-    private Graph grafo;
+    private DigrafoCSR grafo;
+    private MapaLongInt pesos;
     private Map<Autor, Integer> indices;
     private List<Autor> autores;
+    private Set<Artigo> artigos;
+    private IndiceFiliacoes filiacoes;
 
     /**
      * Construtor da classe GrafoAutores.
      * Inicializa um grafo vazio, um mapa de índices e uma lista de autores.
      */
     public GrafoAutores() {
-        this.grafo = new Graph(0);
+        this.grafo = new DigrafoCSR();
+        this.pesos = new MapaLongInt();
         this.indices = new HashMap<>();
         this.autores = new ArrayList<>();
+        this.artigos = new HashSet<>();
+        this.filiacoes = new IndiceFiliacoes();
+    }
+
+    /**
+     * Construtor de um grafo já construído, usado para extrair subgrafos e para construções em lote.
+     *
+     * @param autores os autores, pela ordem dos vértices do grafo
+     * @param grafo   o grafo de colaborações entre os autores
+     * @param pesos   o número de artigos comuns a cada par de autores do grafo
+     * @param artigos os artigos já contabilizados nos pesos
+     */
+    GrafoAutores(List<Autor> autores, DigrafoCSR grafo, MapaLongInt pesos, Set<Artigo> artigos) {
+        this.grafo = grafo;
+        this.pesos = pesos;
+        this.indices = new HashMap<>();
+        this.autores = autores;
+        this.artigos = artigos;
+        this.filiacoes = new IndiceFiliacoes();
+        for (int v = 0; v < autores.size(); v++) {
+            indices.put(autores.get(v), v);
+            filiacoes.adicionar(v, autores.get(v).getFiliacao());
+        }
     }
 
     /**
@@ -29,29 +58,69 @@ class GrafoAutores {
      */
     public void adicionarAutor(Autor autor) {
         if (!indices.containsKey(autor)) {
-            int index = autores.size();
+            int index = grafo.adicionarVertice();
             autores.add(autor);
             indices.put(autor, index);
-            Graph novoGrafo = new Graph(autores.size());
-            for (int v = 0; v < grafo.V(); v++) {
-                for (int w : grafo.adj(v)) {
-                    novoGrafo.addEdge(v, w);
+            filiacoes.adicionar(index, autor.getFiliacao());
+        }
+    }
+
+    /**
+     * Adiciona um artigo ao grafo: acrescenta os seus autores e uma colaboração entre cada par de autores.
+     * Se o artigo já tiver sido adicionado, não faz nada.
+     *
+     * @param artigo o artigo a ser adicionado
+     */
+    public void adicionarArtigo(Artigo artigo) {
+        if (!artigos.add(artigo)) return;
+        List<Autor> autoresArtigo = artigo.getAutores();
+        for (Autor autor : autoresArtigo) {
+            adicionarAutor(autor);
+        }
+        for (int i = 0; i < autoresArtigo.size(); i++) {
+            for (int j = i + 1; j < autoresArtigo.size(); j++) {
+                int v = indices.get(autoresArtigo.get(i));
+                int w = indices.get(autoresArtigo.get(j));
+                if (v != w && pesos.incrementar(par(v, w), 1) == 1 && !ligados(v, w)) {
+                    grafo.adicionarAresta(v, w);
+                    grafo.adicionarAresta(w, v);
                 }
             }
-            this.grafo = novoGrafo;
         }
     }
 
     /**
-     * Adiciona uma colaboração entre dois autores no grafo.
+     * Adiciona uma colaboração entre dois autores que já estão no grafo. Cria apenas a aresta, se ainda não
+     * existir: o número de artigos comuns aos dois autores não muda, porque nenhum artigo é adicionado.
+     * Um autor não colabora consigo próprio.
      *
      * @param autor1 o primeiro autor da colaboração
      * @param autor2 o segundo autor da colaboração
      */
     public void adicionarColaboracao(Autor autor1, Autor autor2) {
-        if (indices.containsKey(autor1) && indices.containsKey(autor2)) {
-            grafo.addEdge(indices.get(autor1), indices.get(autor2));
+        Integer v = indices.get(autor1);
+        Integer w = indices.get(autor2);
+        if (v != null && w != null && !v.equals(w) && pesos.obter(par(v, w)) == 0 && !ligados(v, w)) {
+            grafo.adicionarAresta(v, w);
+            grafo.adicionarAresta(w, v);
+        }
+    }
+
+    /**
+     * Verifica se dois vértices já estão ligados, percorrendo os vizinhos do primeiro.
+     */
+    private boolean ligados(int v, int w) {
+        for (int i = 0; i < grafo.grauSaida(v); i++) {
+            if (grafo.adjacente(v, i) == w) return true;
         }
+        return false;
+    }
+
+    /**
+     * Obtém a chave de um par não ordenado de vértices, com o menor índice nos 32 bits mais altos.
+     */
+    static long par(int v, int w) {
+        return v < w ? ((long) v << 32) | w : ((long) w << 32) | v;
     }
 
     /**
@@ -61,63 +130,71 @@ class GrafoAutores {
      * @return a lista de colaboradores do autor especificado
      */
     public List<Autor> getColaboradores(Autor autor) {
-        List<Autor> colaboradores = new ArrayList<>();
         int index = indices.get(autor);
-        for (int w : grafo.adj(index)) {
-            colaboradores.add(autores.get(w));
+        List<Autor> colaboradores = new ArrayList<>(grafo.grauSaida(index));
+        for (int i = 0; i < grafo.grauSaida(index); i++) {
+            colaboradores.add(autores.get(grafo.adjacente(index, i)));
         }
         return colaboradores;
     }
 
     /**
      * Lista os autores que estão afiliados a qualquer uma das instituições fornecidas.
+     * Os nomes das instituições podem ser parciais e são comparados palavra a palavra, ignorando maiúsculas e acentos.
      *
      * @param instituicoes uma lista de nomes de instituições para filtrar os autores.
      * @return uma lista de autores que estão afiliados a pelo menos uma das instituições especificadas.
      */
     public List<Autor> listarAutoresPorInstituicoes(List<String> instituicoes) {
-        List<Autor> resultado = new ArrayList<>();
-        for (Autor autor : autores) {
-            for (String instituicao : instituicoes) {
-                if (autor.getFiliacao().contains(instituicao)) {
-                    resultado.add(autor);
-                    break;
+        BitmapCompacto selecionados = new BitmapCompacto();
+        for (String instituicao : instituicoes) {
+            BitmapCompacto confirmados = new BitmapCompacto();
+            for (int v : filiacoes.procurarCandidatos(instituicao).paraArray()) {
+                if (filiacoes.corresponde(autores.get(v).getFiliacao(), instituicao)) {
+                    confirmados.adicionar(v);
                 }
             }
+            selecionados.ouNoLocal(confirmados);
+        }
+        List<Autor> resultado = new ArrayList<>();
+        for (int v : selecionados.paraArray()) {
+            resultado.add(autores.get(v));
         }
         return resultado;
     }
 
     /**
-     * Obtém o número de colaboradores de um determinado autor.
+     * Obtém o número de colaboradores distintos de um determinado autor.
      *
      * @param autor o autor cujo número de colaboradores será obtido
      * @return o número de colaboradores do autor especificado
      */
     public int getNColaboradores(Autor autor) {
-        int numero = 0;
-        int index = indices.get(autor);
-        for (int w : grafo.adj(index)) {
-            numero++;
-        }
-        return numero;
+        return grafo.grauSaida(indices.get(autor));
     }
 
     /**
      * Conta o número de artigos em que dois autores colaboraram juntos.
+     * Para os pares ligados por artigos adicionados ao grafo, conta esses artigos em O(1). Para os pares ligados
+     * apenas por colaborações adicionadas diretamente, conta os artigos comuns nas listas de artigos dos autores.
+     * Dois autores sem aresta entre eles não colaboraram no grafo.
      *
      * @param autor1 o primeiro autor.
      * @param autor2 o segundo autor.
      * @return o número de artigos em que os dois autores colaboraram.
      */
     public int numeroDeArtigosEntreAutores(Autor autor1, Autor autor2) {
-        int count = 0;
-        for (Artigo artigo : autor1.getArtigos()){
-            if (artigo.getAutores().contains(autor2)){
-                count++;
+        Integer v = indices.get(autor1);
+        Integer w = indices.get(autor2);
+        if (v == null || w == null || v.equals(w)) return 0;
+        int comuns = pesos.obter(par(v, w));
+        if (comuns > 0 || !ligados(v, w)) return comuns;
+        for (Artigo artigo : autor1.getArtigos()) {
+            if (artigo.contemAutor(autor2)) {
+                comuns++;
             }
         }
-        return count;
+        return comuns;
     }
 
 
@@ -128,13 +205,56 @@ class GrafoAutores {
      * @return um subgrafo contendo apenas os autores afiliados à filiação especificada.
      */
     public GrafoAutores subGrafoPorFiliacao(String filiacao) {
-        GrafoAutores subGrafo = new GrafoAutores();
-        for (Autor autor : autores) {
-            if (Objects.equals(autor.getFiliacao(), filiacao)) {
-                subGrafo.adicionarAutor(autor);
+        return subGrafoInduzido(filiacoes.procurarExata(filiacao).paraArray());
+    }
+
+    /**
+     * Cria o subgrafo induzido por um conjunto de vértices, com todas as colaborações entre eles.
+     * O custo é proporcional aos vértices selecionados, às suas arestas e aos seus artigos. Os artigos do grafo
+     * com todos os autores selecionados ficam contabilizados no subgrafo, para que voltar a adicioná-los não conte
+     * de novo as colaborações que o subgrafo já herdou; um artigo com algum autor por selecionar não fica, para que
+     * adicioná-lo traga os restantes autores e as suas colaborações.
+     *
+     * @param vertices os vértices selecionados, por ordem crescente
+     * @return o subgrafo induzido
+     */
+    private GrafoAutores subGrafoInduzido(int[] vertices) {
+        List<Autor> selecionados = new ArrayList<>(vertices.length);
+        for (int v : vertices) {
+            selecionados.add(autores.get(v));
+        }
+        DigrafoCSR subGrafo = grafo.subGrafoInduzido(vertices);
+        MapaLongInt subPesos = new MapaLongInt(subGrafo.E() / 2);
+        for (int v = 0; v < subGrafo.V(); v++) {
+            for (int i = 0; i < subGrafo.grauSaida(v); i++) {
+                int w = subGrafo.adjacente(v, i);
+                if (v < w) {
+                    subPesos.incrementar(par(v, w), pesos.obter(par(vertices[v], vertices[w])));
+                }
+            }
+        }
+        boolean[] selecionado = new boolean[autores.size()];
+        for (int v : vertices) {
+            selecionado[v] = true;
+        }
+        Set<Artigo> contabilizados = new HashSet<>();
+        for (Autor autorSelecionado : selecionados) {
+            for (Artigo artigo : autorSelecionado.getArtigos()) {
+                if (contabilizados.contains(artigo) || !artigos.contains(artigo)) continue;
+                boolean todos = true;
+                for (Autor autor : artigo.getAutores()) {
+                    Integer v = indices.get(autor);
+                    if (v == null || !selecionado[v]) {
+                        todos = false;
+                        break;
+                    }
+                }
+                if (todos) {
+                    contabilizados.add(artigo);
+                }
             }
         }
-        return subGrafo;
+        return new GrafoAutores(selecionados, subGrafo, subPesos, contabilizados);
     }
 
 
@@ -0,0 +1,55 @@
+package Projeto;
+
+import java.time.LocalDate;
+
+/**
+ * Enumeração que representa os intervalos de tempo em que o uso dos artigos pode ser agregado.
+ * Os meses e os anos são contados no calendário UTC, como os dias das séries temporais.
+ */
+public enum Granularidade {
+    /**
+     * Um total por dia.
+     */
+    DIA,
+    /**
+     * Um total por mês.
+     */
+    MES,
+    /**
+     * Um total por ano.
+     */
+    ANO;
+
+    /**
+     * Obtém o intervalo a que pertence um dia: o próprio dia, o número do mês (ano * 12 + mês - 1) ou o ano.
+     * Os números crescem com o tempo, pelo que a ordem dos intervalos é a ordem dos dias.
+     *
+     * @param dia o número de dias desde 1970-01-01
+     * @return o número do intervalo
+     */
+    long intervalo(long dia) {
+        if (this == DIA) {
+            return dia;
+        }
+        LocalDate data = LocalDate.ofEpochDay(dia);
+        return this == MES ? data.getYear() * 12L + data.getMonthValue() - 1 : data.getYear();
+    }
+
+    /**
+     * Obtém o primeiro dia de um intervalo.
+     *
+     * @param intervalo o número do intervalo, como devolvido por {@link #intervalo(long)}
+     * @return o número do primeiro dia do intervalo
+     */
+    long primeiroDia(long intervalo) {
+        switch (this) {
+            case DIA:
+                return intervalo;
+            case MES:
+                return LocalDate.of((int) Math.floorDiv(intervalo, 12), Math.floorMod(intervalo, 12) + 1, 1)
+                        .toEpochDay();
+            default:
+                return LocalDate.of((int) intervalo, 1, 1).toEpochDay();
+        }
+    }
+}
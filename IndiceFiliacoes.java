@@ -0,0 +1,83 @@
+package Projeto;
+
+import java.util.*;
+
+/**
+ * Índice invertido das filiações dos autores de um grafo. Associa cada filiação exata, e cada palavra normalizada
+ * das filiações, ao conjunto dos índices dos autores que a têm, guardado como um {@link BitmapCompacto}.
+ * Os filtros por várias instituições reduzem-se assim a uniões e interseções de bitmaps.
+ */
+class IndiceFiliacoes {
+    private final HashMap<String, BitmapCompacto> porFiliacao;
+    private final TreeMap<String, BitmapCompacto> porPalavra;
+    private final HashMap<String, String> normalizadas;
+
+    /**
+     * Construtor da classe IndiceFiliacoes.
+     * Inicializa um índice vazio.
+     */
+    public IndiceFiliacoes() {
+        this.porFiliacao = new HashMap<>();
+        this.porPalavra = new TreeMap<>();
+        this.normalizadas = new HashMap<>();
+    }
+
+    /**
+     * Indexa a filiação de um autor.
+     *
+     * @param indice   o índice do autor no grafo
+     * @param filiacao a filiação do autor, possivelmente null
+     */
+    public void adicionar(int indice, String filiacao) {
+        porFiliacao.computeIfAbsent(filiacao, f -> new BitmapCompacto()).adicionar(indice);
+        for (String palavra : IndiceTextual.termos(filiacao)) {
+            porPalavra.computeIfAbsent(palavra, p -> new BitmapCompacto()).adicionar(indice);
+        }
+    }
+
+    /**
+     * Obtém os autores com uma filiação exatamente igual à indicada.
+     *
+     * @param filiacao a filiação
+     * @return os índices dos autores com essa filiação
+     */
+    public BitmapCompacto procurarExata(String filiacao) {
+        BitmapCompacto autores = porFiliacao.get(filiacao);
+        return autores == null ? new BitmapCompacto() : autores;
+    }
+
+    /**
+     * Obtém os candidatos a uma instituição: os autores cuja filiação tem, para cada palavra da instituição, uma
+     * palavra que começa por ela. Os candidatos devem ser confirmados com {@link #corresponde(String, String)}.
+     *
+     * @param instituicao o nome, possivelmente parcial, da instituição
+     * @return os índices dos autores candidatos
+     */
+    public BitmapCompacto procurarCandidatos(String instituicao) {
+        BitmapCompacto resultado = null;
+        for (String palavra : IndiceTextual.termos(instituicao)) {
+            BitmapCompacto comPrefixo = new BitmapCompacto();
+            for (BitmapCompacto autores : porPalavra.subMap(palavra, true, palavra + Character.MAX_VALUE, false).values()) {
+                comPrefixo.ouNoLocal(autores);
+            }
+            resultado = resultado == null ? comPrefixo : resultado.e(comPrefixo);
+            if (resultado.vazio()) break;
+        }
+        return resultado == null ? new BitmapCompacto() : resultado;
+    }
+
+    /**
+     * Verifica se uma filiação contém o nome de uma instituição, ignorando maiúsculas, acentos e pontuação.
+     * O nome tem de começar no início de uma palavra da filiação.
+     *
+     * @param filiacao    a filiação do autor
+     * @param instituicao o nome, possivelmente parcial, da instituição
+     * @return true se a filiação corresponder à instituição
+     */
+    public boolean corresponde(String filiacao, String instituicao) {
+        String procurada = IndiceNomes.normalizar(instituicao);
+        if (procurada.isEmpty()) return false;
+        String normalizada = normalizadas.computeIfAbsent(filiacao, f -> ' ' + IndiceNomes.normalizar(f));
+        return normalizada.contains(' ' + procurada);
+    }
+}
@@ -0,0 +1,238 @@
+package Projeto;
+
+import java.util.*;
+
+/**
+ * Índice dos nomes dos autores para pesquisas por prefixo (autocompletar) e pesquisas aproximadas.
+ * Os nomes e os nomes científicos são normalizados (sem acentos, em minúsculas) e guardados numa trie ternária
+ * de pesquisa, a partir do início de cada palavra, para que "silva" encontre "Ana Silva".
+ * Cada chave guarda todos os autores com esse nome, pelo que os homónimos não se sobrepõem.
+ * A pesquisa aproximada percorre a trie calculando a distância de Levenshtein linha a linha e abandona os ramos
+ * cuja distância mínima já excede o máximo pedido.
+ */
+class IndiceNomes {
+    private No raiz;
+
+    /**
+     * Nó da trie ternária. Os autores ficam no nó do último carácter da chave.
+     */
+    private static final class No {
+        private final char c;
+        private No esquerda, meio, direita;
+        private Set<Autor> autores;
+
+        No(char c) {
+            this.c = c;
+        }
+    }
+
+    /**
+     * Normaliza um nome: remove acentos e pontuação, passa a minúsculas e separa as palavras por um espaço.
+     *
+     * @param nome o nome a normalizar
+     * @return o nome normalizado, possivelmente vazio
+     */
+    static String normalizar(String nome) {
+        return String.join(" ", IndiceTextual.termos(nome));
+    }
+
+    /**
+     * Indexa o nome e o nome científico de um autor.
+     *
+     * @param autor o autor a indexar
+     */
+    public void adicionar(Autor autor) {
+        for (String chave : chaves(autor)) {
+            raiz = inserir(raiz, chave, 0, autor);
+        }
+    }
+
+    /**
+     * Remove um autor do índice.
+     *
+     * @param autor o autor a remover
+     */
+    public void remover(Autor autor) {
+        for (String chave : chaves(autor)) {
+            No no = procurarNo(raiz, chave, 0);
+            if (no != null && no.autores != null) {
+                no.autores.remove(autor);
+                if (no.autores.isEmpty()) {
+                    no.autores = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Obtém todos os autores cujo nome ou nome científico é igual ao indicado, ignorando maiúsculas e acentos.
+     *
+     * @param nome o nome completo
+     * @return os autores com esse nome, incluindo os homónimos
+     */
+    public List<Autor> procurar(String nome) {
+        String chave = normalizar(nome);
+        List<Autor> resultado = new ArrayList<>();
+        if (chave.isEmpty()) return resultado;
+        No no = procurarNo(raiz, chave, 0);
+        if (no != null && no.autores != null) {
+            for (Autor autor : no.autores) {
+                if (normalizar(autor.getNome()).equals(chave) || normalizar(autor.getNomeCientifico()).equals(chave)) {
+                    resultado.add(autor);
+                }
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Obtém os autores com uma palavra do nome ou do nome científico a começar pelo prefixo indicado,
+     * por ordem alfabética da chave encontrada.
+     *
+     * @param prefixo o prefixo a procurar
+     * @param limite  o número máximo de autores a devolver
+     * @return os autores encontrados, sem repetições
+     */
+    public List<Autor> procurarPorPrefixo(String prefixo, int limite) {
+        String chave = normalizar(prefixo);
+        Set<Autor> resultado = new LinkedHashSet<>();
+        if (chave.isEmpty() || limite <= 0) return new ArrayList<>();
+        No no = procurarNo(raiz, chave, 0);
+        if (no != null) {
+            if (no.autores != null) {
+                acrescentar(resultado, no.autores, limite);
+            }
+            recolher(no.meio, resultado, limite);
+        }
+        return new ArrayList<>(resultado);
+    }
+
+    /**
+     * Obtém os autores cujo nome, nome científico ou parte final de um deles, a começar numa palavra, está a uma
+     * distância de Levenshtein não superior à indicada. Os autores são ordenados pela menor distância encontrada.
+     *
+     * @param nome             o nome a procurar
+     * @param distanciaMaxima  o número máximo de inserções, remoções ou substituições de caracteres
+     * @param limite           o número máximo de autores a devolver
+     * @return os autores encontrados, do mais próximo para o mais afastado
+     */
+    public List<Autor> procurarAproximado(String nome, int distanciaMaxima, int limite) {
+        String chave = normalizar(nome);
+        if (chave.isEmpty() || limite <= 0) return new ArrayList<>();
+        int[] linhaInicial = new int[chave.length() + 1];
+        for (int i = 0; i <= chave.length(); i++) {
+            linhaInicial[i] = i;
+        }
+        Map<Autor, Integer> distancias = new LinkedHashMap<>();
+        procurarAproximado(raiz, chave, linhaInicial, distanciaMaxima, distancias);
+        List<Map.Entry<Autor, Integer>> entradas = new ArrayList<>(distancias.entrySet());
+        entradas.sort(Map.Entry.comparingByValue());
+        List<Autor> resultado = new ArrayList<>();
+        for (int i = 0; i < entradas.size() && i < limite; i++) {
+            resultado.add(entradas.get(i).getKey());
+        }
+        return resultado;
+    }
+
+    /**
+     * Percorre a trie a partir de um nó. Os ramos esquerdo e direito estão à mesma profundidade e usam a linha de
+     * distâncias recebida; o ramo do meio consome o carácter do nó e calcula a linha seguinte.
+     */
+    private void procurarAproximado(No x, String chave, int[] linhaAnterior, int distanciaMaxima,
+                                    Map<Autor, Integer> distancias) {
+        if (x == null) return;
+        procurarAproximado(x.esquerda, chave, linhaAnterior, distanciaMaxima, distancias);
+        procurarAproximado(x.direita, chave, linhaAnterior, distanciaMaxima, distancias);
+
+        int[] linha = new int[linhaAnterior.length];
+        linha[0] = linhaAnterior[0] + 1;
+        int minimo = linha[0];
+        for (int i = 1; i < linha.length; i++) {
+            int substituicao = linhaAnterior[i - 1] + (chave.charAt(i - 1) == x.c ? 0 : 1);
+            linha[i] = Math.min(substituicao, Math.min(linhaAnterior[i] + 1, linha[i - 1] + 1));
+            minimo = Math.min(minimo, linha[i]);
+        }
+        int distancia = linha[linha.length - 1];
+        if (x.autores != null && distancia <= distanciaMaxima) {
+            for (Autor autor : x.autores) {
+                distancias.merge(autor, distancia, Math::min);
+            }
+        }
+        if (minimo <= distanciaMaxima) {
+            procurarAproximado(x.meio, chave, linha, distanciaMaxima, distancias);
+        }
+    }
+
+    /**
+     * Obtém as chaves de um autor: o nome e o nome científico normalizados, a partir do início de cada palavra.
+     */
+    private static Set<String> chaves(Autor autor) {
+        Set<String> chaves = new HashSet<>();
+        for (String nome : new String[]{autor.getNome(), autor.getNomeCientifico()}) {
+            String normalizado = normalizar(nome);
+            if (normalizado.isEmpty()) continue;
+            chaves.add(normalizado);
+            for (int i = normalizado.indexOf(' '); i >= 0; i = normalizado.indexOf(' ', i + 1)) {
+                chaves.add(normalizado.substring(i + 1));
+            }
+        }
+        return chaves;
+    }
+
+    private No inserir(No x, String chave, int d, Autor autor) {
+        char c = chave.charAt(d);
+        if (x == null) {
+            x = new No(c);
+        }
+        if (c < x.c) {
+            x.esquerda = inserir(x.esquerda, chave, d, autor);
+        } else if (c > x.c) {
+            x.direita = inserir(x.direita, chave, d, autor);
+        } else if (d < chave.length() - 1) {
+            x.meio = inserir(x.meio, chave, d + 1, autor);
+        } else {
+            if (x.autores == null) {
+                x.autores = new LinkedHashSet<>();
+            }
+            x.autores.add(autor);
+        }
+        return x;
+    }
+
+    private No procurarNo(No x, String chave, int d) {
+        while (x != null) {
+            char c = chave.charAt(d);
+            if (c < x.c) {
+                x = x.esquerda;
+            } else if (c > x.c) {
+                x = x.direita;
+            } else if (d < chave.length() - 1) {
+                x = x.meio;
+                d++;
+            } else {
+                return x;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Recolhe, por ordem alfabética, os autores da subárvore de um nó até atingir o limite.
+     */
+    private void recolher(No x, Set<Autor> resultado, int limite) {
+        if (x == null || resultado.size() >= limite) return;
+        recolher(x.esquerda, resultado, limite);
+        if (x.autores != null) {
+            acrescentar(resultado, x.autores, limite);
+        }
+        recolher(x.meio, resultado, limite);
+        recolher(x.direita, resultado, limite);
+    }
+
+    private static void acrescentar(Set<Autor> resultado, Set<Autor> autores, int limite) {
+        for (Autor autor : autores) {
+            if (resultado.size() >= limite) return;
+            resultado.add(autor);
+        }
+    }
+}
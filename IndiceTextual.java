@@ -0,0 +1,752 @@
+package Projeto;
+
+import java.text.Normalizer;
+import java.util.*;
+
+/**
+ * Índice invertido em memória sobre o título, o resumo e as palavras-chave dos artigos.
+ * Cada termo tem uma lista de ocorrências comprimida: os identificadores dos documentos são guardados como
+ * diferenças em varint, seguidos da frequência do termo e das posições (também em diferenças), o que permite
+ * pesquisas de frases. Os resultados são ordenados por BM25.
+ * As listas são percorridas por cursores que descodificam um documento de cada vez e saltam blocos inteiros de
+ * documentos através de pontos de salto, sem descodificar a lista toda; cada bloco guarda também a maior
+ * frequência e o menor comprimento dos seus documentos, pelo que uma pesquisa de um só termo ignora os blocos que
+ * não podem ter nenhum artigo entre os melhores já encontrados.
+ * Os documentos removidos ficam marcados até que a sua fração justifique reconstruir o índice.
+ * <p>
+ * Sintaxe das consultas: termos separados por espaços têm de ocorrer todos; {@code a OR b} aceita qualquer
+ * um dos dois; {@code -termo} exclui os artigos que o contêm; {@code "uma frase"} exige os termos seguidos.
+ */
+class IndiceTextual {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int CAPACIDADE_INICIAL = 16;
+    /**
+     * Intervalo de posições entre campos, para que uma frase não seja encontrada entre o fim do título e o
+     * início do resumo.
+     */
+    private static final int INTERVALO_CAMPOS = 8;
+    private static final int MINIMO_RECONSTRUCAO = 1024;
+    /**
+     * Número de documentos de cada bloco das listas de ocorrências, entre dois pontos de salto.
+     */
+    private static final int TAMANHO_BLOCO = 64;
+
+    private final HashMap<String, Ocorrencias> termos;
+    private final HashMap<Artigo, Integer> identificadores;
+    private Artigo[] documentos;
+    private int[] comprimentos;
+    private long[] datas;
+    private TipoPublicacao[] tipos;
+    private int numeroDocumentos;
+    private int documentosRemovidos;
+    private long comprimentoTotal;
+
+    /**
+     * Construtor da classe IndiceTextual.
+     * Inicializa um índice vazio.
+     */
+    public IndiceTextual() {
+        this.termos = new HashMap<>();
+        this.identificadores = new HashMap<>();
+        this.documentos = new Artigo[CAPACIDADE_INICIAL];
+        this.comprimentos = new int[CAPACIDADE_INICIAL];
+        this.datas = new long[CAPACIDADE_INICIAL];
+        this.tipos = new TipoPublicacao[CAPACIDADE_INICIAL];
+    }
+
+    /**
+     * Obtém o número de artigos indexados.
+     *
+     * @return o número de artigos ativos no índice
+     */
+    public int tamanho() {
+        return identificadores.size();
+    }
+
+    /**
+     * Divide um texto em termos normalizados: sem acentos, em minúsculas e separados por qualquer carácter que
+     * não seja letra ou dígito.
+     *
+     * @param texto o texto a dividir
+     * @return a lista de termos, pela ordem em que ocorrem
+     */
+    static List<String> termos(String texto) {
+        List<String> resultado = new ArrayList<>();
+        if (texto == null || texto.isEmpty()) return resultado;
+        String normalizado = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        StringBuilder termo = new StringBuilder();
+        for (int i = 0; i < normalizado.length(); i++) {
+            char c = normalizado.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) continue;
+            if (Character.isLetterOrDigit(c)) {
+                termo.append(Character.toLowerCase(c));
+            } else if (termo.length() > 0) {
+                resultado.add(termo.toString());
+                termo.setLength(0);
+            }
+        }
+        if (termo.length() > 0) {
+            resultado.add(termo.toString());
+        }
+        return resultado;
+    }
+
+    /**
+     * Indexa um artigo. Se o artigo já estiver indexado, é reindexado com os dados atuais.
+     *
+     * @param artigo o artigo a indexar
+     */
+    public void adicionar(Artigo artigo) {
+        if (identificadores.containsKey(artigo)) {
+            remover(artigo);
+        }
+        int documento = numeroDocumentos++;
+        garantirCapacidade(numeroDocumentos);
+        identificadores.put(artigo, documento);
+        documentos[documento] = artigo;
+        datas[documento] = artigo.getData().getTime();
+        tipos[documento] = artigo.getTipo();
+
+        HashMap<String, int[]> posicoes = new HashMap<>();
+        int posicao = acumularPosicoes(posicoes, artigo.getTitulo(), 0);
+        posicao = acumularPosicoes(posicoes, artigo.getResumo(), posicao + INTERVALO_CAMPOS);
+        for (String palavraChave : artigo.getPalavrasChave()) {
+            posicao = acumularPosicoes(posicoes, palavraChave, posicao + INTERVALO_CAMPOS);
+        }
+        int comprimento = 0;
+        for (int[] lista : posicoes.values()) {
+            comprimento += lista[0];
+        }
+        for (Map.Entry<String, int[]> entrada : posicoes.entrySet()) {
+            termos.computeIfAbsent(entrada.getKey(), t -> new Ocorrencias())
+                    .acrescentar(documento, entrada.getValue(), comprimento);
+        }
+        comprimentos[documento] = comprimento;
+        comprimentoTotal += comprimento;
+    }
+
+    /**
+     * Remove um artigo do índice. As suas ocorrências ficam marcadas como removidas e são descartadas
+     * quando o índice é reconstruído.
+     *
+     * @param artigo o artigo a remover
+     */
+    public void remover(Artigo artigo) {
+        Integer documento = identificadores.remove(artigo);
+        if (documento == null) return;
+        documentos[documento] = null;
+        comprimentoTotal -= comprimentos[documento];
+        documentosRemovidos++;
+        if (numeroDocumentos >= MINIMO_RECONSTRUCAO && documentosRemovidos * 4 > numeroDocumentos) {
+            reconstruir();
+        }
+    }
+
+    /**
+     * Pesquisa os artigos que satisfazem uma consulta, ordenados por relevância.
+     *
+     * @param consulta a consulta, com a sintaxe descrita na classe
+     * @param inicio   a data mínima de publicação, ou null para não limitar
+     * @param fim      a data máxima de publicação, ou null para não limitar
+     * @param tipo     o tipo de publicação pretendido, ou null para aceitar todos
+     * @param limite   o número máximo de artigos a devolver
+     * @return os artigos encontrados, do mais relevante para o menos relevante
+     */
+    public List<Artigo> pesquisar(String consulta, Date inicio, Date fim, TipoPublicacao tipo, int limite) {
+        List<Clausula> clausulas = interpretar(consulta);
+        if (clausulas.size() == 1 && !clausulas.get(0).negada && clausulas.get(0).alternativas.size() == 1
+                && clausulas.get(0).alternativas.get(0).length == 1 && limite > 0) {
+            return pesquisarTermo(clausulas.get(0).alternativas.get(0)[0],
+                    inicio == null ? Long.MIN_VALUE : inicio.getTime(),
+                    fim == null ? Long.MAX_VALUE : fim.getTime(), tipo, limite);
+        }
+        List<Resultados> obrigatorios = new ArrayList<>();
+        List<Resultados> excluidos = new ArrayList<>();
+        for (Clausula clausula : clausulas) {
+            Resultados resultados = null;
+            for (String[] alternativa : clausula.alternativas) {
+                Resultados encontrados = avaliar(alternativa);
+                resultados = resultados == null ? encontrados : resultados.unir(encontrados);
+            }
+            (clausula.negada ? excluidos : obrigatorios).add(resultados);
+        }
+        if (obrigatorios.isEmpty() || limite <= 0) {
+            return new ArrayList<>();
+        }
+        obrigatorios.sort(Comparator.comparingInt(r -> r.tamanho));
+        Resultados resultado = obrigatorios.get(0);
+        for (int i = 1; i < obrigatorios.size() && resultado.tamanho > 0; i++) {
+            resultado = resultado.intersetar(obrigatorios.get(i));
+        }
+        for (Resultados excluido : excluidos) {
+            resultado = resultado.excluir(excluido);
+        }
+
+        long de = inicio == null ? Long.MIN_VALUE : inicio.getTime();
+        long ate = fim == null ? Long.MAX_VALUE : fim.getTime();
+        Melhores melhores = new Melhores(limite);
+        for (int i = 0; i < resultado.tamanho; i++) {
+            int documento = resultado.documentos[i];
+            if (aceite(documento, de, ate, tipo)) {
+                melhores.considerar(documento, resultado.pontuacoes[i]);
+            }
+        }
+        return melhores.artigos(documentos);
+    }
+
+    /**
+     * Pesquisa os artigos com um único termo, sem avaliar todos os documentos da lista: um bloco da lista é saltado
+     * quando o maior valor BM25 que um dos seus documentos pode ter não chega para entrar nos melhores já
+     * encontrados. Como os documentos são percorridos por ordem crescente e os empates favorecem os documentos
+     * anteriores, o resultado é o mesmo da avaliação completa.
+     */
+    private List<Artigo> pesquisarTermo(String termo, long de, long ate, TipoPublicacao tipo, int limite) {
+        Ocorrencias ocorrencias = termos.get(termo);
+        if (ocorrencias == null) return new ArrayList<>();
+        double mediaComprimentos = mediaComprimentos();
+        double idf = idf(ocorrencias);
+        Melhores melhores = new Melhores(limite);
+        Cursor cursor = new Cursor(ocorrencias);
+        int bloco = -1;
+        double maximoBloco = Double.POSITIVE_INFINITY;
+        boolean ativo = cursor.avancar();
+        while (ativo) {
+            if (cursor.bloco() != bloco) {
+                bloco = cursor.bloco();
+                // Com documentos removidos por descartar o idf pode ser negativo, e o limite deixa de ser superior
+                maximoBloco = idf <= 0 ? Double.POSITIVE_INFINITY : bm25(idf, ocorrencias.maximoFrequencia[bloco],
+                        ocorrencias.minimoComprimento[bloco], mediaComprimentos);
+            }
+            if (maximoBloco < melhores.minimo()) {
+                ativo = cursor.proximoBloco();
+                continue;
+            }
+            int documento = cursor.documento;
+            if (documentos[documento] != null && aceite(documento, de, ate, tipo)) {
+                melhores.considerar(documento, bm25(idf, cursor.frequencia, comprimentos[documento],
+                        mediaComprimentos));
+            }
+            ativo = cursor.avancar();
+        }
+        return melhores.artigos(documentos);
+    }
+
+    private boolean aceite(int documento, long de, long ate, TipoPublicacao tipo) {
+        return datas[documento] >= de && datas[documento] <= ate && (tipo == null || tipos[documento] == tipo);
+    }
+
+    private double mediaComprimentos() {
+        return identificadores.isEmpty() ? 1 : (double) comprimentoTotal / identificadores.size();
+    }
+
+    private double idf(Ocorrencias ocorrencias) {
+        double df = ocorrencias.frequenciaDocumentos;
+        return Math.log(1 + (identificadores.size() - df + 0.5) / (df + 0.5));
+    }
+
+    /**
+     * Calcula a contribuição BM25 de um termo para um documento. Cresce com a frequência e decresce com o
+     * comprimento do documento, pelo que serve também de limite superior de um bloco.
+     */
+    private static double bm25(double idf, int tf, int comprimento, double mediaComprimentos) {
+        double normalizacao = K1 * (1 - B + B * comprimento / mediaComprimentos);
+        return idf * tf * (K1 + 1) / (tf + normalizacao);
+    }
+
+    /**
+     * Obtém os documentos que contêm um termo ou, se forem indicados vários termos, a frase que formam.
+     * As listas dos termos são percorridas em conjunto por cursores, que saltam os blocos sem documentos comuns.
+     */
+    private Resultados avaliar(String[] frase) {
+        Cursor[] cursores = new Cursor[frase.length];
+        int menor = Integer.MAX_VALUE;
+        for (int t = 0; t < frase.length; t++) {
+            Ocorrencias ocorrencias = termos.get(frase[t]);
+            if (ocorrencias == null) return new Resultados(0);
+            cursores[t] = new Cursor(ocorrencias);
+            menor = Math.min(menor, ocorrencias.frequenciaDocumentos);
+        }
+        double mediaComprimentos = mediaComprimentos();
+        double[] idf = new double[frase.length];
+        for (int t = 0; t < frase.length; t++) {
+            idf[t] = idf(cursores[t].ocorrencias);
+        }
+
+        Resultados resultados = new Resultados(menor);
+        int alvo = 0;
+        while (alinhar(cursores, alvo)) {
+            int documento = cursores[0].documento;
+            alvo = documento + 1;
+            if (documentos[documento] == null) continue;
+            if (frase.length > 1 && !contemFrase(cursores)) continue;
+            double pontuacao = 0;
+            for (int t = 0; t < frase.length; t++) {
+                pontuacao += bm25(idf[t], cursores[t].frequencia, comprimentos[documento], mediaComprimentos);
+            }
+            resultados.acrescentar(documento, pontuacao);
+        }
+        return resultados;
+    }
+
+    /**
+     * Avança os cursores até ao primeiro documento, a partir de um alvo, que está em todas as listas.
+     *
+     * @return false se alguma das listas terminou antes de haver um documento comum
+     */
+    private static boolean alinhar(Cursor[] cursores, int alvo) {
+        int alinhados = 0;
+        for (int t = 0; alinhados < cursores.length; t = (t + 1) % cursores.length) {
+            if (!cursores[t].avancarPara(alvo)) return false;
+            if (cursores[t].documento == alvo) {
+                alinhados++;
+            } else {
+                alvo = cursores[t].documento;
+                alinhados = 1;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Verifica se os termos de uma frase ocorrem em posições consecutivas no documento atual de cada cursor.
+     */
+    private static boolean contemFrase(Cursor[] cursores) {
+        int[][] posicoes = new int[cursores.length][];
+        for (int t = 0; t < cursores.length; t++) {
+            posicoes[t] = cursores[t].posicoes();
+        }
+        for (int inicio : posicoes[0]) {
+            boolean seguidos = true;
+            for (int t = 1; t < posicoes.length && seguidos; t++) {
+                seguidos = Arrays.binarySearch(posicoes[t], inicio + t) >= 0;
+            }
+            if (seguidos) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Divide uma consulta em cláusulas. Cada cláusula é uma disjunção de termos ou frases, possivelmente negada.
+     */
+    private static List<Clausula> interpretar(String consulta) {
+        List<Clausula> clausulas = new ArrayList<>();
+        if (consulta == null) return clausulas;
+        boolean juntarAnterior = false;
+        int i = 0;
+        while (i < consulta.length()) {
+            char c = consulta.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            boolean negada = false;
+            if (c == '-' && i + 1 < consulta.length() && !Character.isWhitespace(consulta.charAt(i + 1))) {
+                negada = true;
+                c = consulta.charAt(++i);
+            }
+            String texto;
+            boolean citacao = c == '"';
+            if (citacao) {
+                int fecho = consulta.indexOf('"', i + 1);
+                if (fecho < 0) fecho = consulta.length();
+                texto = consulta.substring(i + 1, fecho);
+                i = fecho + 1;
+            } else {
+                int fim = i;
+                while (fim < consulta.length() && !Character.isWhitespace(consulta.charAt(fim))) fim++;
+                texto = consulta.substring(i, fim);
+                i = fim;
+            }
+            if (!citacao && !negada && texto.equals("OR")) {
+                juntarAnterior = !clausulas.isEmpty() && !clausulas.get(clausulas.size() - 1).negada;
+                continue;
+            }
+            List<String> frase = termos(texto);
+            if (frase.isEmpty()) continue;
+            String[] alternativa = frase.toArray(new String[0]);
+            if (juntarAnterior && !negada) {
+                clausulas.get(clausulas.size() - 1).alternativas.add(alternativa);
+            } else {
+                clausulas.add(new Clausula(negada, alternativa));
+            }
+            juntarAnterior = false;
+        }
+        return clausulas;
+    }
+
+    /**
+     * Acrescenta as posições dos termos de um campo ao mapa de posições do documento.
+     * Cada array tem o número de posições na primeira célula, seguido das posições.
+     *
+     * @return a posição seguinte à do último termo do campo
+     */
+    private static int acumularPosicoes(HashMap<String, int[]> posicoes, String campo, int posicao) {
+        for (String termo : termos(campo)) {
+            int[] lista = posicoes.get(termo);
+            if (lista == null) {
+                lista = new int[4];
+            } else if (lista[0] + 1 == lista.length) {
+                lista = Arrays.copyOf(lista, lista.length * 2);
+            }
+            lista[++lista[0]] = posicao++;
+            posicoes.put(termo, lista);
+        }
+        return posicao;
+    }
+
+    /**
+     * Reconstrói o índice apenas com os artigos ativos, descartando as ocorrências dos artigos removidos.
+     * A ordem relativa dos documentos é preservada.
+     */
+    private void reconstruir() {
+        Artigo[] ativos = new Artigo[identificadores.size()];
+        int n = 0;
+        for (int d = 0; d < numeroDocumentos; d++) {
+            if (documentos[d] != null) ativos[n++] = documentos[d];
+        }
+        termos.clear();
+        identificadores.clear();
+        documentos = new Artigo[Math.max(CAPACIDADE_INICIAL, n)];
+        comprimentos = new int[documentos.length];
+        datas = new long[documentos.length];
+        tipos = new TipoPublicacao[documentos.length];
+        numeroDocumentos = 0;
+        documentosRemovidos = 0;
+        comprimentoTotal = 0;
+        for (Artigo artigo : ativos) {
+            adicionar(artigo);
+        }
+    }
+
+    private void garantirCapacidade(int capacidade) {
+        if (capacidade <= documentos.length) return;
+        int novaCapacidade = Math.max(capacidade, documentos.length * 2);
+        documentos = Arrays.copyOf(documentos, novaCapacidade);
+        comprimentos = Arrays.copyOf(comprimentos, novaCapacidade);
+        datas = Arrays.copyOf(datas, novaCapacidade);
+        tipos = Arrays.copyOf(tipos, novaCapacidade);
+    }
+
+    /**
+     * Cláusula de uma consulta: uma ou mais alternativas, cada uma um termo ou uma frase.
+     */
+    private static final class Clausula {
+        private final boolean negada;
+        private final List<String[]> alternativas = new ArrayList<>();
+
+        Clausula(boolean negada, String[] alternativa) {
+            this.negada = negada;
+            this.alternativas.add(alternativa);
+        }
+    }
+
+    /**
+     * Lista de ocorrências comprimida de um termo. Os documentos são acrescentados por ordem crescente, cada um
+     * codificado como a diferença para o anterior, a frequência do termo e o número de bytes das posições;
+     * as posições ficam num array à parte, para que possam ser ignoradas sem as descodificar.
+     * No início de cada bloco de {@value #TAMANHO_BLOCO} documentos é guardado um ponto de salto com o documento
+     * anterior e as posições de leitura nos dois arrays, a partir do qual a descodificação pode recomeçar, e são
+     * acumuladas a maior frequência e o menor comprimento dos documentos do bloco.
+     */
+    private static final class Ocorrencias {
+        private byte[] documentos = new byte[8];
+        private int tamanhoDocumentos;
+        private byte[] posicoes = new byte[8];
+        private int tamanhoPosicoes;
+        private int ultimoDocumento = -1;
+        private int frequenciaDocumentos;
+        private int numeroBlocos;
+        private int[] documentoAntesBloco = new int[1];
+        private int[] inicioBlocoDocumentos = new int[1];
+        private int[] inicioBlocoPosicoes = new int[1];
+        private int[] maximoFrequencia = new int[1];
+        private int[] minimoComprimento = new int[1];
+
+        void acrescentar(int documento, int[] lista, int comprimento) {
+            if (frequenciaDocumentos % TAMANHO_BLOCO == 0) {
+                iniciarBloco();
+            }
+            int bloco = numeroBlocos - 1;
+            maximoFrequencia[bloco] = Math.max(maximoFrequencia[bloco], lista[0]);
+            minimoComprimento[bloco] = Math.min(minimoComprimento[bloco], comprimento);
+            int inicio = tamanhoPosicoes;
+            int anterior = 0;
+            for (int i = 1; i <= lista[0]; i++) {
+                escreverPosicao(lista[i] - anterior);
+                anterior = lista[i];
+            }
+            escreverDocumento(documento - ultimoDocumento);
+            escreverDocumento(lista[0]);
+            escreverDocumento(tamanhoPosicoes - inicio);
+            ultimoDocumento = documento;
+            frequenciaDocumentos++;
+        }
+
+        private void iniciarBloco() {
+            if (numeroBlocos == documentoAntesBloco.length) {
+                int capacidade = numeroBlocos * 2;
+                documentoAntesBloco = Arrays.copyOf(documentoAntesBloco, capacidade);
+                inicioBlocoDocumentos = Arrays.copyOf(inicioBlocoDocumentos, capacidade);
+                inicioBlocoPosicoes = Arrays.copyOf(inicioBlocoPosicoes, capacidade);
+                maximoFrequencia = Arrays.copyOf(maximoFrequencia, capacidade);
+                minimoComprimento = Arrays.copyOf(minimoComprimento, capacidade);
+            }
+            documentoAntesBloco[numeroBlocos] = ultimoDocumento;
+            inicioBlocoDocumentos[numeroBlocos] = tamanhoDocumentos;
+            inicioBlocoPosicoes[numeroBlocos] = tamanhoPosicoes;
+            minimoComprimento[numeroBlocos] = Integer.MAX_VALUE;
+            numeroBlocos++;
+        }
+
+        private void escreverDocumento(int valor) {
+            if (tamanhoDocumentos + 5 > documentos.length) {
+                documentos = Arrays.copyOf(documentos, documentos.length * 2 + 5);
+            }
+            tamanhoDocumentos = escreverVarint(documentos, tamanhoDocumentos, valor);
+        }
+
+        private void escreverPosicao(int valor) {
+            if (tamanhoPosicoes + 5 > posicoes.length) {
+                posicoes = Arrays.copyOf(posicoes, posicoes.length * 2 + 5);
+            }
+            tamanhoPosicoes = escreverVarint(posicoes, tamanhoPosicoes, valor);
+        }
+    }
+
+    /**
+     * Cursor sobre uma lista de ocorrências, que descodifica um documento de cada vez. As posições do documento
+     * atual só são descodificadas se forem pedidas.
+     */
+    private static final class Cursor {
+        private final Ocorrencias ocorrencias;
+        private final int[] leitura = {0};
+        private int indice = -1;
+        private int documento = -1;
+        private int frequencia;
+        private int inicioPosicoes;
+        private int fimPosicoes;
+
+        Cursor(Ocorrencias ocorrencias) {
+            this.ocorrencias = ocorrencias;
+        }
+
+        /**
+         * Avança para o documento seguinte da lista.
+         *
+         * @return false se a lista terminou
+         */
+        boolean avancar() {
+            if (indice + 1 >= ocorrencias.frequenciaDocumentos) {
+                indice = ocorrencias.frequenciaDocumentos;
+                documento = Integer.MAX_VALUE;
+                return false;
+            }
+            indice++;
+            documento += lerVarint(ocorrencias.documentos, leitura);
+            frequencia = lerVarint(ocorrencias.documentos, leitura);
+            inicioPosicoes = fimPosicoes;
+            fimPosicoes += lerVarint(ocorrencias.documentos, leitura);
+            return true;
+        }
+
+        /**
+         * Avança até ao primeiro documento igual ou posterior a um alvo, saltando os blocos cujos documentos são
+         * todos anteriores ao alvo.
+         *
+         * @return false se a lista terminou antes do alvo
+         */
+        boolean avancarPara(int alvo) {
+            if (documento >= alvo) return indice < ocorrencias.frequenciaDocumentos;
+            int bloco = indice / TAMANHO_BLOCO + 1;
+            int salto = -1;
+            while (bloco < ocorrencias.numeroBlocos && ocorrencias.documentoAntesBloco[bloco] < alvo) {
+                salto = bloco++;
+            }
+            if (salto >= 0) {
+                saltarPara(salto);
+            }
+            while (documento < alvo) {
+                if (!avancar()) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Obtém o bloco do documento atual.
+         */
+        int bloco() {
+            return indice / TAMANHO_BLOCO;
+        }
+
+        /**
+         * Avança para o primeiro documento do bloco seguinte.
+         *
+         * @return false se a lista terminou
+         */
+        boolean proximoBloco() {
+            int bloco = bloco() + 1;
+            if (bloco >= ocorrencias.numeroBlocos) {
+                indice = ocorrencias.frequenciaDocumentos;
+                documento = Integer.MAX_VALUE;
+                return false;
+            }
+            saltarPara(bloco);
+            return avancar();
+        }
+
+        /**
+         * Obtém as posições do termo no documento atual.
+         */
+        int[] posicoes() {
+            int[] resultado = new int[frequencia];
+            int[] leituraPosicoes = {inicioPosicoes};
+            int posicao = 0;
+            for (int p = 0; p < resultado.length; p++) {
+                posicao += lerVarint(ocorrencias.posicoes, leituraPosicoes);
+                resultado[p] = posicao;
+            }
+            return resultado;
+        }
+
+        /**
+         * Coloca o cursor imediatamente antes do primeiro documento de um bloco.
+         */
+        private void saltarPara(int bloco) {
+            indice = bloco * TAMANHO_BLOCO - 1;
+            documento = ocorrencias.documentoAntesBloco[bloco];
+            leitura[0] = ocorrencias.inicioBlocoDocumentos[bloco];
+            fimPosicoes = ocorrencias.inicioBlocoPosicoes[bloco];
+        }
+    }
+
+    /**
+     * Seleção dos documentos com maior pontuação, numa fila de prioridade mínima limitada. Em caso de empate, fica o
+     * documento anterior.
+     */
+    private static final class Melhores {
+        private final int limite;
+        private final Resultados candidatos = new Resultados(16);
+        private final PriorityQueue<Integer> fila;
+
+        Melhores(int limite) {
+            this.limite = limite;
+            this.fila = new PriorityQueue<>(Comparator
+                    .comparingDouble((Integer i) -> candidatos.pontuacoes[i])
+                    .thenComparing(i -> -candidatos.documentos[i]));
+        }
+
+        void considerar(int documento, double pontuacao) {
+            if (fila.size() == limite) {
+                int pior = fila.peek();
+                if (pontuacao < candidatos.pontuacoes[pior]
+                        || (pontuacao == candidatos.pontuacoes[pior] && documento > candidatos.documentos[pior])) {
+                    return;
+                }
+            }
+            candidatos.acrescentar(documento, pontuacao);
+            fila.add(candidatos.tamanho - 1);
+            if (fila.size() > limite) {
+                fila.poll();
+            }
+        }
+
+        /**
+         * Obtém a menor pontuação que ainda pode entrar na seleção.
+         */
+        double minimo() {
+            return fila.size() < limite ? Double.NEGATIVE_INFINITY : candidatos.pontuacoes[fila.peek()];
+        }
+
+        List<Artigo> artigos(Artigo[] documentos) {
+            Artigo[] ordenados = new Artigo[fila.size()];
+            for (int i = ordenados.length - 1; i >= 0; i--) {
+                ordenados[i] = documentos[candidatos.documentos[fila.poll()]];
+            }
+            return new ArrayList<>(Arrays.asList(ordenados));
+        }
+    }
+
+    /**
+     * Documentos que satisfazem parte de uma consulta, por ordem crescente, com a respetiva pontuação.
+     */
+    private static final class Resultados {
+        private int tamanho;
+        private int[] documentos;
+        private double[] pontuacoes;
+
+        Resultados(int capacidade) {
+            this.documentos = new int[Math.max(capacidade, 1)];
+            this.pontuacoes = new double[documentos.length];
+        }
+
+        void acrescentar(int documento, double pontuacao) {
+            if (tamanho == documentos.length) {
+                documentos = Arrays.copyOf(documentos, tamanho * 2);
+                pontuacoes = Arrays.copyOf(pontuacoes, tamanho * 2);
+            }
+            documentos[tamanho] = documento;
+            pontuacoes[tamanho++] = pontuacao;
+        }
+
+        Resultados unir(Resultados outros) {
+            Resultados resultado = new Resultados(tamanho + outros.tamanho);
+            int i = 0, j = 0;
+            while (i < tamanho || j < outros.tamanho) {
+                if (j == outros.tamanho || (i < tamanho && documentos[i] < outros.documentos[j])) {
+                    resultado.acrescentar(documentos[i], pontuacoes[i++]);
+                } else if (i == tamanho || outros.documentos[j] < documentos[i]) {
+                    resultado.acrescentar(outros.documentos[j], outros.pontuacoes[j++]);
+                } else {
+                    resultado.acrescentar(documentos[i], pontuacoes[i++] + outros.pontuacoes[j++]);
+                }
+            }
+            return resultado;
+        }
+
+        Resultados intersetar(Resultados outros) {
+            Resultados resultado = new Resultados(Math.min(tamanho, outros.tamanho));
+            int i = 0, j = 0;
+            while (i < tamanho && j < outros.tamanho) {
+                if (documentos[i] < outros.documentos[j]) {
+                    i++;
+                } else if (outros.documentos[j] < documentos[i]) {
+                    j++;
+                } else {
+                    resultado.acrescentar(documentos[i], pontuacoes[i++] + outros.pontuacoes[j++]);
+                }
+            }
+            return resultado;
+        }
+
+        Resultados excluir(Resultados outros) {
+            Resultados resultado = new Resultados(tamanho);
+            int j = 0;
+            for (int i = 0; i < tamanho; i++) {
+                while (j < outros.tamanho && outros.documentos[j] < documentos[i]) j++;
+                if (j == outros.tamanho || outros.documentos[j] != documentos[i]) {
+                    resultado.acrescentar(documentos[i], pontuacoes[i]);
+                }
+            }
+            return resultado;
+        }
+    }
+
+    private static int escreverVarint(byte[] destino, int posicao, int valor) {
+        while ((valor & ~0x7F) != 0) {
+            destino[posicao++] = (byte) ((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        destino[posicao++] = (byte) valor;
+        return posicao;
+    }
+
+    private static int lerVarint(byte[] origem, int[] leitura) {
+        int valor = 0;
+        for (int deslocamento = 0; ; deslocamento += 7) {
+            byte b = origem[leitura[0]++];
+            valor |= (b & 0x7F) << deslocamento;
+            if (b >= 0) return valor;
+        }
+    }
+}
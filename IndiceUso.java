@@ -0,0 +1,179 @@
+package Projeto;
+
+import java.util.*;
+
+/**
+ * Índice dos artigos usados (visualizados ou descarregados) em cada dia, mês e ano. Cada intervalo guarda um
+ * {@link BitmapCompacto} com os números dos artigos que tiveram uso nesse intervalo, atualizado quando um artigo
+ * recebe o primeiro uso de um dia. Os artigos usados num período são a união dos conjuntos dos anos e meses
+ * inteiros do período e dos dias das pontas, pelo que a consulta depende do número de intervalos e não do número
+ * de artigos nem do número de registos de uso.
+ *
+ * <p>Os métodos são sincronizados no índice. Podem ser chamados com o monitor de um artigo, mas o índice nunca
+ * obtém o monitor de um artigo.</p>
+ */
+class IndiceUso {
+    private final Map<Artigo, Integer> numeros;
+    private final EnumMap<Granularidade, TreeMap<Long, BitmapCompacto>> usados;
+
+    /**
+     * Construtor da classe IndiceUso.
+     * Inicializa um índice vazio.
+     */
+    public IndiceUso() {
+        this.numeros = new HashMap<>();
+        this.usados = new EnumMap<>(Granularidade.class);
+        for (Granularidade granularidade : Granularidade.values()) {
+            usados.put(granularidade, new TreeMap<>());
+        }
+    }
+
+    /**
+     * Obtém os dias com visualizações ou downloads de um artigo. Tem de ser chamado com o monitor do artigo.
+     *
+     * @param artigo o artigo
+     * @return os dias com uso, possivelmente repetidos
+     */
+    static long[] diasComUso(Artigo artigo) {
+        return concatenar(dias(artigo.getSerieVisualizacoes()), dias(artigo.getSerieDownloads()));
+    }
+
+    /**
+     * Obtém os dias com registos de uma série.
+     *
+     * @param serie a série
+     * @return os dias da série, por ordem crescente
+     */
+    static long[] dias(SerieTemporal serie) {
+        long[] dias = new long[serie.tamanho()];
+        for (int i = 0; i < dias.length; i++) {
+            dias[i] = serie.diaEm(i);
+        }
+        return dias;
+    }
+
+    /**
+     * Acrescenta um artigo ao índice com o seu número e os dias em que já foi usado.
+     *
+     * @param artigo o artigo
+     * @param numero o número do artigo, não negativo e único na base
+     * @param dias   os dias com uso do artigo
+     */
+    synchronized void adicionar(Artigo artigo, int numero, long[] dias) {
+        numeros.put(artigo, numero);
+        for (long dia : dias) {
+            marcar(numero, dia);
+        }
+    }
+
+    /**
+     * Remove um artigo do índice.
+     *
+     * @param artigo o artigo
+     * @param dias   os dias com uso do artigo
+     */
+    synchronized void remover(Artigo artigo, long[] dias) {
+        Integer numero = numeros.remove(artigo);
+        if (numero != null) {
+            desmarcar(numero, dias);
+        }
+    }
+
+    /**
+     * Marca um artigo do índice como usado num dia.
+     *
+     * @param artigo o artigo
+     * @param dia    o número do dia
+     */
+    synchronized void usado(Artigo artigo, long dia) {
+        Integer numero = numeros.get(artigo);
+        if (numero != null) {
+            marcar(numero, dia);
+        }
+    }
+
+    /**
+     * Atualiza os dias de uso de um artigo depois de uma das suas séries ser substituída.
+     *
+     * @param artigo    o artigo
+     * @param anteriores os dias da série substituída
+     * @param atuais     os dias com uso do artigo depois da substituição
+     */
+    synchronized void substituir(Artigo artigo, long[] anteriores, long[] atuais) {
+        Integer numero = numeros.get(artigo);
+        if (numero == null) return;
+        desmarcar(numero, anteriores);
+        for (long dia : atuais) {
+            marcar(numero, dia);
+        }
+    }
+
+    /**
+     * Obtém os números dos artigos usados entre dois dias, inclusive.
+     *
+     * @param diaInicio o primeiro dia do período
+     * @param diaFim    o último dia do período
+     * @return um novo conjunto com os números dos artigos usados no período
+     */
+    synchronized BitmapCompacto usados(long diaInicio, long diaFim) {
+        BitmapCompacto resultado = new BitmapCompacto();
+        TreeMap<Long, BitmapCompacto> porDia = usados.get(Granularidade.DIA);
+        if (porDia.isEmpty()) return resultado;
+        long dia = Math.max(diaInicio, porDia.firstKey());
+        long ultimo = Math.min(diaFim, porDia.lastKey());
+        while (dia <= ultimo) {
+            Granularidade granularidade = Granularidade.ANO;
+            long intervalo = granularidade.intervalo(dia);
+            long seguinte = granularidade.primeiroDia(intervalo + 1);
+            if (granularidade.primeiroDia(intervalo) != dia || seguinte - 1 > ultimo) {
+                granularidade = Granularidade.MES;
+                intervalo = granularidade.intervalo(dia);
+                seguinte = granularidade.primeiroDia(intervalo + 1);
+            }
+            if (granularidade.primeiroDia(intervalo) == dia && seguinte - 1 <= ultimo) {
+                BitmapCompacto artigos = usados.get(granularidade).get(intervalo);
+                if (artigos != null) {
+                    resultado.ouNoLocal(artigos);
+                }
+            } else {
+                seguinte = Math.min(seguinte, ultimo + 1);
+                for (BitmapCompacto doDia : porDia.subMap(dia, true, seguinte, false).values()) {
+                    resultado.ouNoLocal(doDia);
+                }
+            }
+            dia = seguinte;
+        }
+        return resultado;
+    }
+
+    private void marcar(int numero, long dia) {
+        for (Map.Entry<Granularidade, TreeMap<Long, BitmapCompacto>> indice : usados.entrySet()) {
+            indice.getValue().computeIfAbsent(indice.getKey().intervalo(dia), i -> new BitmapCompacto()).adicionar(numero);
+        }
+    }
+
+    /**
+     * Retira um artigo dos intervalos de vários dias. Um mês ou ano é esvaziado mesmo que o artigo tenha tido uso
+     * noutros dias desse intervalo, pelo que quem chama volta a marcar os dias de uso que se mantêm.
+     */
+    private void desmarcar(int numero, long[] dias) {
+        for (Map.Entry<Granularidade, TreeMap<Long, BitmapCompacto>> indice : usados.entrySet()) {
+            for (long dia : dias) {
+                long intervalo = indice.getKey().intervalo(dia);
+                BitmapCompacto artigos = indice.getValue().get(intervalo);
+                if (artigos != null) {
+                    artigos.remover(numero);
+                    if (artigos.vazio()) {
+                        indice.getValue().remove(intervalo);
+                    }
+                }
+            }
+        }
+    }
+
+    private static long[] concatenar(long[] a, long[] b) {
+        long[] resultado = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, resultado, a.length, b.length);
+        return resultado;
+    }
+}
@@ -0,0 +1,311 @@
+package Projeto;
+
+import java.io.Closeable;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recolha de eventos de uso dos artigos (visualizações, downloads e likes) a partir de muitas threads.
+ *
+ * <p>Registar um evento não toca no artigo: o evento é acrescentado a uma de várias faixas, escolhida pela thread
+ * que o regista, pelo que threads diferentes raramente disputam o mesmo bloqueio, mesmo quando registam eventos do
+ * mesmo artigo. Uma thread de fundo esvazia as faixas a cada intervalo e junta os eventos em lote: os eventos do
+ * mesmo artigo, tipo e dia são somados e entregues ao artigo por ordem de dia, numa única chamada por artigo e por
+ * lote. Se o artigo pertencer a uma base de dados, essa chamada é também um único registo no registo de operações
+ * da base, escrito sem esperar pela gravação em disco: tal como os eventos ainda por juntar, o uso juntado mais
+ * recentemente pode perder-se numa falha.</p>
+ *
+ * <p>Os eventos ficam visíveis nas séries dos artigos depois da junção seguinte; {@link #descarregar()} força a
+ * junção imediata. Uma faixa que acumule demasiados eventos é esvaziada pela própria thread que a encheu.</p>
+ */
+public final class IngestaoUso implements Closeable {
+    private static final long INTERVALO_PREDEFINIDO_MS = 200;
+    private static final int LIMITE_FAIXA = 1 << 14;
+
+    /**
+     * Número de bits do dia na chave de agregação; os dias fora deste intervalo são aplicados diretamente.
+     */
+    private static final int BITS_DIA = 22;
+    private static final long DESVIO_DIA = 1L << (BITS_DIA - 1);
+
+    private final Faixa[] faixas;
+    private final ScheduledExecutorService juntador;
+    private volatile boolean fechada;
+
+    /**
+     * Construtor da classe IngestaoUso.
+     * Junta os eventos em fundo a cada 200 milissegundos.
+     */
+    public IngestaoUso() {
+        this(INTERVALO_PREDEFINIDO_MS);
+    }
+
+    /**
+     * Construtor da classe IngestaoUso.
+     *
+     * @param intervaloMilissegundos o intervalo entre junções em fundo
+     */
+    public IngestaoUso(long intervaloMilissegundos) {
+        if (intervaloMilissegundos <= 0) {
+            throw new IllegalArgumentException("O intervalo deve ser positivo: " + intervaloMilissegundos);
+        }
+        int numeroFaixas = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 4) * 2 - 1);
+        this.faixas = new Faixa[numeroFaixas];
+        for (int i = 0; i < numeroFaixas; i++) {
+            faixas[i] = new Faixa();
+        }
+        this.juntador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ingestao-uso");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.juntador.scheduleWithFixedDelay(this::juntarEmFundo,
+                intervaloMilissegundos, intervaloMilissegundos, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Regista uma visualização de um artigo.
+     *
+     * @param artigo o artigo visualizado
+     * @param data   a data da visualização
+     */
+    public void registarVisualizacao(Artigo artigo, Date data) {
+        registar(artigo, data, Artigo.VISUALIZACOES, 1);
+    }
+
+    /**
+     * Regista várias visualizações de um artigo na mesma data.
+     *
+     * @param artigo     o artigo visualizado
+     * @param data       a data das visualizações
+     * @param quantidade o número de visualizações
+     */
+    public void registarVisualizacoes(Artigo artigo, Date data, int quantidade) {
+        registar(artigo, data, Artigo.VISUALIZACOES, quantidade);
+    }
+
+    /**
+     * Regista um download de um artigo.
+     *
+     * @param artigo o artigo descarregado
+     * @param data   a data do download
+     */
+    public void registarDownload(Artigo artigo, Date data) {
+        registar(artigo, data, Artigo.DOWNLOADS, 1);
+    }
+
+    /**
+     * Regista vários downloads de um artigo na mesma data.
+     *
+     * @param artigo     o artigo descarregado
+     * @param data       a data dos downloads
+     * @param quantidade o número de downloads
+     */
+    public void registarDownloads(Artigo artigo, Date data, int quantidade) {
+        registar(artigo, data, Artigo.DOWNLOADS, quantidade);
+    }
+
+    /**
+     * Regista um like de um artigo.
+     *
+     * @param artigo o artigo
+     * @param data   a data do like
+     */
+    public void registarLike(Artigo artigo, Date data) {
+        registar(artigo, data, Artigo.LIKES, 1);
+    }
+
+    /**
+     * Regista vários likes de um artigo na mesma data.
+     *
+     * @param artigo     o artigo
+     * @param data       a data dos likes
+     * @param quantidade o número de likes
+     */
+    public void registarLikes(Artigo artigo, Date data, int quantidade) {
+        registar(artigo, data, Artigo.LIKES, quantidade);
+    }
+
+    /**
+     * Junta imediatamente todos os eventos registados até agora às séries dos artigos.
+     */
+    public void descarregar() {
+        List<Lote> lotes = new ArrayList<>(faixas.length);
+        for (Faixa faixa : faixas) {
+            Lote lote = faixa.retirar();
+            if (lote != null) {
+                lotes.add(lote);
+            }
+        }
+        juntar(lotes);
+    }
+
+    /**
+     * Para a thread de fundo e junta os eventos pendentes. Depois de fechada, a ingestão não aceita mais eventos.
+     */
+    @Override
+    public void close() {
+        fechada = true;
+        juntador.shutdown();
+        try {
+            juntador.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        descarregar();
+    }
+
+    /**
+     * Valida e acrescenta um evento. Os argumentos são verificados aqui, na thread que regista, porque um evento
+     * inválido só falharia na junção, em fundo, e faria perder os restantes eventos do mesmo lote.
+     */
+    private void registar(Artigo artigo, Date data, byte tipo, int quantidade) {
+        Objects.requireNonNull(artigo, "O artigo não pode ser nulo");
+        Objects.requireNonNull(data, "A data não pode ser nula");
+        if (quantidade < 0) {
+            throw new IllegalArgumentException("A quantidade não pode ser negativa: " + quantidade);
+        }
+        if (fechada) {
+            throw new IllegalStateException("A ingestão de uso está fechada");
+        }
+        if (quantidade == 0) return;
+        Faixa faixa = faixas[indiceFaixa()];
+        if (faixa.acrescentar(artigo, SerieTemporal.dia(data), tipo, quantidade)) {
+            Lote lote = faixa.retirar();
+            if (lote != null) {
+                juntar(Collections.singletonList(lote));
+            }
+        }
+    }
+
+    /**
+     * Escolhe a faixa da thread atual, dispersando o identificador da thread (hashing de Fibonacci).
+     */
+    private int indiceFaixa() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & (faixas.length - 1);
+    }
+
+    private void juntarEmFundo() {
+        try {
+            descarregar();
+        } catch (RuntimeException e) {
+            System.err.println("Ocorreu um erro ao juntar os eventos de uso: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Junta vários lotes às séries dos artigos. Cada artigo recebe um número; a chave de agregação de um evento
+     * junta o número do artigo, o dia e o tipo, pelo que ordenar as chaves agrupa os eventos por artigo e, dentro de
+     * cada artigo, por dia.
+     */
+    private static void juntar(List<Lote> lotes) {
+        Map<Artigo, Integer> numeros = new HashMap<>();
+        List<Artigo> artigos = new ArrayList<>();
+        int eventos = 0;
+        for (Lote lote : lotes) {
+            eventos += lote.tamanho;
+        }
+        if (eventos == 0) return;
+        MapaLongInt contagens = new MapaLongInt(eventos);
+        for (Lote lote : lotes) {
+            for (int e = 0; e < lote.tamanho; e++) {
+                Artigo artigo = lote.artigos[e];
+                long dia = lote.dias[e];
+                if (dia < -DESVIO_DIA || dia >= DESVIO_DIA) {
+                    artigo.registarUso(new byte[]{lote.tipos[e]}, new long[]{dia}, new int[]{lote.quantidades[e]}, 1,
+                            false);
+                    continue;
+                }
+                Integer numero = numeros.get(artigo);
+                if (numero == null) {
+                    numero = artigos.size();
+                    numeros.put(artigo, numero);
+                    artigos.add(artigo);
+                }
+                long chave = ((long) numero << (BITS_DIA + 2)) | ((dia + DESVIO_DIA) << 2) | lote.tipos[e];
+                contagens.incrementar(chave, lote.quantidades[e]);
+            }
+        }
+        long[] chaves = contagens.chaves();
+        Arrays.sort(chaves);
+        byte[] tipos = new byte[chaves.length];
+        long[] dias = new long[chaves.length];
+        int[] quantidades = new int[chaves.length];
+        int i = 0;
+        while (i < chaves.length) {
+            int numero = (int) (chaves[i] >>> (BITS_DIA + 2));
+            int tamanho = 0;
+            for (; i < chaves.length && (int) (chaves[i] >>> (BITS_DIA + 2)) == numero; i++, tamanho++) {
+                tipos[tamanho] = (byte) (chaves[i] & 3);
+                dias[tamanho] = ((chaves[i] >>> 2) & ((1L << BITS_DIA) - 1)) - DESVIO_DIA;
+                quantidades[tamanho] = contagens.obter(chaves[i]);
+            }
+            artigos.get(numero).registarUso(tipos, dias, quantidades, tamanho, false);
+        }
+    }
+
+    /**
+     * Faixa de eventos por juntar, em arrays paralelos. É trocada por uma faixa vazia quando é esvaziada, pelo que
+     * o bloqueio da faixa só é mantido durante um acrescento ou uma troca de arrays.
+     */
+    private static final class Faixa {
+        private Lote atual = new Lote(64);
+
+        /**
+         * Acrescenta um evento à faixa.
+         *
+         * @return true se a faixa atingiu o limite e deve ser esvaziada
+         */
+        synchronized boolean acrescentar(Artigo artigo, long dia, byte tipo, int quantidade) {
+            atual.acrescentar(artigo, dia, tipo, quantidade);
+            return atual.tamanho >= LIMITE_FAIXA;
+        }
+
+        /**
+         * Retira os eventos da faixa, deixando-a vazia.
+         *
+         * @return os eventos retirados, ou null se a faixa estava vazia
+         */
+        synchronized Lote retirar() {
+            if (atual.tamanho == 0) return null;
+            Lote lote = atual;
+            atual = new Lote(Math.min(LIMITE_FAIXA, lote.tamanho));
+            return lote;
+        }
+    }
+
+    /**
+     * Eventos retirados de uma faixa.
+     */
+    private static final class Lote {
+        private Artigo[] artigos;
+        private long[] dias;
+        private byte[] tipos;
+        private int[] quantidades;
+        private int tamanho;
+
+        Lote(int capacidade) {
+            this.artigos = new Artigo[capacidade];
+            this.dias = new long[capacidade];
+            this.tipos = new byte[capacidade];
+            this.quantidades = new int[capacidade];
+        }
+
+        void acrescentar(Artigo artigo, long dia, byte tipo, int quantidade) {
+            if (tamanho == artigos.length) {
+                artigos = Arrays.copyOf(artigos, tamanho * 2);
+                dias = Arrays.copyOf(dias, tamanho * 2);
+                tipos = Arrays.copyOf(tipos, tamanho * 2);
+                quantidades = Arrays.copyOf(quantidades, tamanho * 2);
+            }
+            artigos[tamanho] = artigo;
+            dias[tamanho] = dia;
+            tipos[tamanho] = tipo;
+            quantidades[tamanho] = quantidade;
+            tamanho++;
+        }
+    }
+}
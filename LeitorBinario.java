@@ -0,0 +1,144 @@
+package Projeto;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lê valores primitivos e textos de um ficheiro mapeado em memória.
+ * O ficheiro é percorrido através de uma janela de mapeamento que avança com a leitura, pelo que
+ * suporta ficheiros maiores do que o limite de 2 GB de um único {@link MappedByteBuffer}.
+ */
+final class LeitorBinario {
+    private static final long TAMANHO_JANELA = 1L << 28;
+
+    private final FileChannel canal;
+    private final long tamanho;
+    private long inicioJanela;
+    private MappedByteBuffer janela;
+
+    /**
+     * Construtor da classe LeitorBinario.
+     *
+     * @param canal o canal do ficheiro a ler
+     * @throws IOException se não for possível mapear o ficheiro
+     */
+    LeitorBinario(FileChannel canal) throws IOException {
+        this.canal = canal;
+        this.tamanho = canal.size();
+        mapear(0);
+    }
+
+    /**
+     * Obtém a posição atual no ficheiro.
+     *
+     * @return o número de bytes já lidos
+     */
+    long posicao() {
+        return inicioJanela + janela.position();
+    }
+
+    /**
+     * Verifica se ainda existem bytes por ler.
+     *
+     * @param bytes o número de bytes pretendido
+     * @return true se o ficheiro tiver pelo menos esse número de bytes depois da posição atual
+     */
+    boolean temMais(int bytes) {
+        return tamanho - posicao() >= bytes;
+    }
+
+    /**
+     * Lê um byte.
+     *
+     * @return o valor lido
+     * @throws IOException se o ficheiro terminar antes do esperado
+     */
+    byte lerByte() throws IOException {
+        garantir(1);
+        return janela.get();
+    }
+
+    /**
+     * Lê um inteiro de 32 bits.
+     *
+     * @return o valor lido
+     * @throws IOException se o ficheiro terminar antes do esperado
+     */
+    int lerInt() throws IOException {
+        garantir(4);
+        return janela.getInt();
+    }
+
+    /**
+     * Lê um inteiro de 64 bits.
+     *
+     * @return o valor lido
+     * @throws IOException se o ficheiro terminar antes do esperado
+     */
+    long lerLong() throws IOException {
+        garantir(8);
+        return janela.getLong();
+    }
+
+    /**
+     * Lê uma sequência de bytes para um array.
+     *
+     * @param destino o array a preencher
+     * @throws IOException se o ficheiro terminar antes do esperado
+     */
+    void lerBytes(byte[] destino) throws IOException {
+        int lidos = 0;
+        while (lidos < destino.length) {
+            if (!janela.hasRemaining()) {
+                garantir(1);
+            }
+            int quantidade = Math.min(janela.remaining(), destino.length - lidos);
+            janela.get(destino, lidos, quantidade);
+            lidos += quantidade;
+        }
+    }
+
+    /**
+     * Lê um texto escrito por {@link EscritorBinario#escreverTexto(String)}.
+     *
+     * @return o texto lido, ou null
+     * @throws IOException se o ficheiro terminar antes do esperado
+     */
+    String lerTexto() throws IOException {
+        int comprimento = lerInt();
+        if (comprimento < 0) return null;
+        byte[] bytes = new byte[comprimento];
+        if (comprimento > TAMANHO_JANELA) {
+            ByteBuffer destino = ByteBuffer.wrap(bytes);
+            long posicao = posicao();
+            while (destino.hasRemaining()) {
+                if (canal.read(destino, posicao + destino.position()) < 0) {
+                    throw new EOFException("Fim inesperado do ficheiro");
+                }
+            }
+            mapear(posicao + comprimento);
+        } else {
+            garantir(comprimento);
+            janela.get(bytes);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void garantir(int bytes) throws IOException {
+        if (janela.remaining() >= bytes) return;
+        long posicao = posicao();
+        if (tamanho - posicao < bytes) {
+            throw new EOFException("Fim inesperado do ficheiro na posição " + posicao);
+        }
+        mapear(posicao);
+    }
+
+    private void mapear(long posicao) throws IOException {
+        this.inicioJanela = posicao;
+        this.janela = canal.map(FileChannel.MapMode.READ_ONLY, posicao, Math.min(TAMANHO_JANELA, tamanho - posicao));
+    }
+}
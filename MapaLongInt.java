@@ -0,0 +1,134 @@
+package Projeto;
+
+import java.util.Arrays;
+
+/**
+ * Mapa de chaves long não negativas para valores int, com endereçamento aberto e sondagem linear sobre arrays
+ * primitivos. Evita os objetos Long e as entradas de um HashMap, pelo que cada associação ocupa 12 bytes
+ * (mais a folga da tabela).
+ */
+class MapaLongInt {
+    private static final long VAZIO = -1L;
+    private static final int CAPACIDADE_INICIAL = 16;
+
+    private long[] chaves;
+    private int[] valores;
+    private int tamanho;
+
+    /**
+     * Construtor da classe MapaLongInt.
+     * Inicializa um mapa vazio.
+     */
+    public MapaLongInt() {
+        this(CAPACIDADE_INICIAL);
+    }
+
+    /**
+     * Construtor da classe MapaLongInt com uma capacidade inicial.
+     *
+     * @param capacidade o número de associações previsto
+     */
+    public MapaLongInt(int capacidade) {
+        int tabela = Integer.highestOneBit(Math.max(capacidade, CAPACIDADE_INICIAL / 2) * 2 - 1) << 1;
+        this.chaves = new long[tabela];
+        this.valores = new int[tabela];
+        Arrays.fill(chaves, VAZIO);
+    }
+
+    /**
+     * Obtém o número de associações do mapa.
+     *
+     * @return o número de chaves presentes
+     */
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Obtém o valor associado a uma chave.
+     *
+     * @param chave a chave, não negativa
+     * @return o valor associado, ou 0 se a chave não estiver presente
+     */
+    public int obter(long chave) {
+        int mascara = chaves.length - 1;
+        for (int i = dispersar(chave) & mascara; chaves[i] != VAZIO; i = (i + 1) & mascara) {
+            if (chaves[i] == chave) return valores[i];
+        }
+        return 0;
+    }
+
+    /**
+     * Soma uma quantidade ao valor associado a uma chave, criando a associação com o valor 0 se não existir.
+     *
+     * @param chave      a chave, não negativa
+     * @param quantidade a quantidade a somar
+     * @return o novo valor associado à chave
+     */
+    public int incrementar(long chave, int quantidade) {
+        if (chave < 0) {
+            throw new IllegalArgumentException("Chave negativa: " + chave);
+        }
+        if (2 * (tamanho + 1) > chaves.length) {
+            redimensionar();
+        }
+        int mascara = chaves.length - 1;
+        int i = dispersar(chave) & mascara;
+        while (chaves[i] != VAZIO) {
+            if (chaves[i] == chave) {
+                return valores[i] += quantidade;
+            }
+            i = (i + 1) & mascara;
+        }
+        chaves[i] = chave;
+        valores[i] = quantidade;
+        tamanho++;
+        return quantidade;
+    }
+
+    /**
+     * Obtém as chaves presentes no mapa, sem ordem definida.
+     *
+     * @return um novo array com as chaves
+     */
+    public long[] chaves() {
+        long[] resultado = new long[tamanho];
+        int n = 0;
+        for (long chave : chaves) {
+            if (chave != VAZIO) {
+                resultado[n++] = chave;
+            }
+        }
+        return resultado;
+    }
+
+    private void redimensionar() {
+        long[] chavesAntigas = chaves;
+        int[] valoresAntigos = valores;
+        chaves = new long[chavesAntigas.length * 2];
+        valores = new int[chaves.length];
+        Arrays.fill(chaves, VAZIO);
+        int mascara = chaves.length - 1;
+        for (int j = 0; j < chavesAntigas.length; j++) {
+            if (chavesAntigas[j] == VAZIO) continue;
+            int i = dispersar(chavesAntigas[j]) & mascara;
+            while (chaves[i] != VAZIO) {
+                i = (i + 1) & mascara;
+            }
+            chaves[i] = chavesAntigas[j];
+            valores[i] = valoresAntigos[j];
+        }
+    }
+
+    /**
+     * Mistura os bits da chave (finalizador do MurmurHash3), para que chaves sequenciais não fiquem agrupadas.
+     */
+    private static int dispersar(long chave) {
+        chave ^= chave >>> 33;
+        chave *= 0xff51afd7ed558ccdL;
+        chave ^= chave >>> 33;
+        chave *= 0xc4ceb9fe1a85ec53L;
+        chave ^= chave >>> 33;
+        return (int) chave;
+    }
+}
@@ -0,0 +1,75 @@
+package Projeto;
+
+import java.util.Date;
+
+/**
+ * Métrica de utilização de um artigo num período, usada para ordenar artigos por uso.
+ * Corresponde a uma combinação ponderada das visualizações, dos downloads e dos likes do artigo no período.
+ */
+public class MetricaUso {
+    /**
+     * Número de visualizações no período.
+     */
+    public static final MetricaUso VISUALIZACOES = new MetricaUso(1, 0, 0);
+    /**
+     * Número de downloads no período.
+     */
+    public static final MetricaUso DOWNLOADS = new MetricaUso(0, 1, 0);
+    /**
+     * Número de likes no período.
+     */
+    public static final MetricaUso LIKES = new MetricaUso(0, 0, 1);
+    /**
+     * Soma das visualizações e dos downloads no período.
+     */
+    public static final MetricaUso VISUALIZACOES_E_DOWNLOADS = new MetricaUso(1, 1, 0);
+
+    private final double pesoVisualizacoes;
+    private final double pesoDownloads;
+    private final double pesoLikes;
+
+    private MetricaUso(double pesoVisualizacoes, double pesoDownloads, double pesoLikes) {
+        this.pesoVisualizacoes = pesoVisualizacoes;
+        this.pesoDownloads = pesoDownloads;
+        this.pesoLikes = pesoLikes;
+    }
+
+    /**
+     * Cria uma métrica que combina visualizações, downloads e likes com os pesos indicados.
+     *
+     * @param pesoVisualizacoes o peso de cada visualização
+     * @param pesoDownloads     o peso de cada download
+     * @param pesoLikes         o peso de cada like
+     * @return a métrica ponderada
+     */
+    public static MetricaUso ponderada(double pesoVisualizacoes, double pesoDownloads, double pesoLikes) {
+        return new MetricaUso(pesoVisualizacoes, pesoDownloads, pesoLikes);
+    }
+
+    /**
+     * Calcula o valor da métrica para um artigo num período. As séries com peso nulo não são consultadas.
+     *
+     * @param artigo o artigo
+     * @param inicio a data de início do período
+     * @param fim    a data de fim do período
+     * @return o valor da métrica no período
+     */
+    public double avaliar(Artigo artigo, Date inicio, Date fim) {
+        double valor = 0;
+        if (pesoVisualizacoes != 0) {
+            valor += pesoVisualizacoes * artigo.contarVisualizacoes(inicio, fim);
+        }
+        if (pesoDownloads != 0) {
+            valor += pesoDownloads * artigo.contarDownloads(inicio, fim);
+        }
+        if (pesoLikes != 0) {
+            valor += pesoLikes * artigo.contarLikes(inicio, fim);
+        }
+        return valor;
+    }
+
+    @Override
+    public String toString() {
+        return "MetricaUso{" + "visualizacoes:" + pesoVisualizacoes + "\t" + "downloads:" + pesoDownloads + "\t" + "likes:" + pesoLikes + '}';
+    }
+}
@@ -0,0 +1,156 @@
+package Projeto;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Resultado colunar das métricas de citação de todos os artigos de um {@link GrafoArtigos}.
+ * Cada métrica é guardada num array primitivo indexado pelo índice do artigo no grafo.
+ */
+public class MetricasCitacoes {
+    /**
+     * Número de vértices a partir do qual o cálculo é dividido entre os núcleos disponíveis.
+     */
+    static final int LIMIAR_PARALELO = 1 << 16;
+    private static final int TAMANHO_TAREFA = 1 << 12;
+
+    private final Artigo[] artigos;
+    private final int[] primeiraOrdem;
+    private final int[] segundaOrdem;
+    private final int[] autocitacoes;
+
+    private MetricasCitacoes(Artigo[] artigos) {
+        this.artigos = artigos;
+        this.primeiraOrdem = new int[artigos.length];
+        this.segundaOrdem = new int[artigos.length];
+        this.autocitacoes = new int[artigos.length];
+    }
+
+    /**
+     * Calcula as citações de primeira ordem, de segunda ordem e as autocitações de todos os vértices
+     * numa única passagem pelas arestas de entrada do grafo.
+     *
+     * @param grafo   o grafo de citações
+     * @param artigos os artigos do grafo, pela ordem dos seus índices
+     * @return as métricas de todos os artigos
+     */
+    static MetricasCitacoes calcular(DigrafoCSR grafo, List<Artigo> artigos) {
+        MetricasCitacoes metricas = new MetricasCitacoes(artigos.toArray(new Artigo[0]));
+        grafo.compactar();
+        if (grafo.V() < LIMIAR_PARALELO) {
+            metricas.calcularIntervalo(grafo, 0, grafo.V());
+        } else {
+            ForkJoinPool.commonPool().invoke(new TarefaMetricas(metricas, grafo, 0, grafo.V()));
+        }
+        return metricas;
+    }
+
+    /**
+     * Calcula as métricas dos vértices em [inicio, fim). Cada vértice só escreve nas suas próprias posições,
+     * pelo que intervalos disjuntos podem ser calculados em paralelo.
+     */
+    private void calcularIntervalo(DigrafoCSR grafo, int inicio, int fim) {
+        for (int v = inicio; v < fim; v++) {
+            int grau = grafo.grauEntrada(v);
+            List<Autor> autores = artigos[v].getAutores();
+            int segunda = 0;
+            int auto = 0;
+            for (int i = 0; i < grau; i++) {
+                int u = grafo.adjacenteInverso(v, i);
+                segunda += grafo.grauEntrada(u);
+                if (partilhamAutor(autores, artigos[u])) {
+                    auto++;
+                }
+            }
+            primeiraOrdem[v] = grau;
+            segundaOrdem[v] = segunda;
+            autocitacoes[v] = auto;
+        }
+    }
+
+    private static boolean partilhamAutor(List<Autor> autores, Artigo citador) {
+        for (Autor autor : autores) {
+            if (citador.contemAutor(autor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Obtém o número de artigos abrangidos pelas métricas.
+     *
+     * @return o número de artigos
+     */
+    public int tamanho() {
+        return artigos.length;
+    }
+
+    /**
+     * Obtém o artigo com um determinado índice.
+     *
+     * @param indice o índice do artigo no grafo
+     * @return o artigo correspondente
+     */
+    public Artigo getArtigo(int indice) {
+        return artigos[indice];
+    }
+
+    /**
+     * Obtém as citações de primeira ordem de todos os artigos.
+     *
+     * @return um array indexado pelo índice do artigo no grafo
+     */
+    public int[] getPrimeiraOrdem() {
+        return primeiraOrdem;
+    }
+
+    /**
+     * Obtém as citações de segunda ordem de todos os artigos.
+     *
+     * @return um array indexado pelo índice do artigo no grafo
+     */
+    public int[] getSegundaOrdem() {
+        return segundaOrdem;
+    }
+
+    /**
+     * Obtém as autocitações de todos os artigos.
+     *
+     * @return um array indexado pelo índice do artigo no grafo
+     */
+    public int[] getAutocitacoes() {
+        return autocitacoes;
+    }
+
+    /**
+     * Tarefa fork-join que divide o intervalo de vértices ao meio até atingir um tamanho sequencial.
+     */
+    private static class TarefaMetricas extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final MetricasCitacoes metricas;
+        private final DigrafoCSR grafo;
+        private final int inicio;
+        private final int fim;
+
+        TarefaMetricas(MetricasCitacoes metricas, DigrafoCSR grafo, int inicio, int fim) {
+            this.metricas = metricas;
+            this.grafo = grafo;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected void compute() {
+            if (fim - inicio <= TAMANHO_TAREFA) {
+                metricas.calcularIntervalo(grafo, inicio, fim);
+                return;
+            }
+            int meio = (inicio + fim) >>> 1;
+            invokeAll(new TarefaMetricas(metricas, grafo, inicio, meio),
+                      new TarefaMetricas(metricas, grafo, meio, fim));
+        }
+    }
+}
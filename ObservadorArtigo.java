@@ -0,0 +1,62 @@
+package Projeto;
+
+/**
+ * Recebe notificações das alterações feitas a um artigo depois de este ter sido adicionado a uma base de dados,
+ * para que os índices da base se mantenham atualizados.
+ */
+interface ObservadorArtigo {
+    /**
+     * Chamado depois de um autor ser adicionado ao artigo.
+     *
+     * @param artigo o artigo alterado
+     * @param autor  o autor adicionado
+     */
+    void autorAdicionado(Artigo artigo, Autor autor);
+
+    /**
+     * Chamado depois de um autor ser removido do artigo.
+     *
+     * @param artigo o artigo alterado
+     * @param autor  o autor removido
+     */
+    void autorRemovido(Artigo artigo, Autor autor);
+
+    /**
+     * Chamado sem o monitor do artigo para registar uso no artigo. O observador aplica o uso com
+     * {@link Artigo#aplicarUso(byte[], long[], int[], int)}, com o monitor do artigo.
+     *
+     * @param artigo      o artigo usado
+     * @param tipos       o tipo de cada registo
+     * @param dias        o número do dia de cada registo
+     * @param quantidades a quantidade de cada registo
+     * @param tamanho     o número de registos
+     * @param aguardar    true para esperar que o registo fique gravado em disco
+     */
+    void registarUso(Artigo artigo, byte[] tipos, long[] dias, int[] quantidades, int tamanho, boolean aguardar);
+
+    /**
+     * Chamado sem o monitor do artigo para substituir uma das suas séries de uso. O observador aplica a substituição
+     * com {@link Artigo#aplicarSubstituicao(byte, SerieTemporal)}, com o monitor do artigo.
+     *
+     * @param artigo o artigo alterado
+     * @param tipo   o tipo da série
+     * @param serie  a nova série
+     */
+    void substituirUso(Artigo artigo, byte tipo, SerieTemporal serie);
+
+    /**
+     * Chamado com o monitor do artigo quando o artigo recebe a primeira visualização ou o primeiro download de um dia.
+     *
+     * @param artigo o artigo usado
+     * @param dia    o número do dia
+     */
+    void diaDeUsoRegistado(Artigo artigo, long dia);
+
+    /**
+     * Chamado com o monitor do artigo depois de a série de visualizações ou de downloads ser substituída.
+     *
+     * @param artigo   o artigo alterado
+     * @param anterior a série substituída
+     */
+    void usoSubstituido(Artigo artigo, SerieTemporal anterior);
+}
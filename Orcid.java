@@ -0,0 +1,69 @@
+package Projeto;
+
+/**
+ * Conversão de identificadores ORCID (formato 0000-0000-0000-000X) para uma representação compacta em 64 bits.
+ * Os 15 primeiros dígitos são guardados como número e o dígito de controlo (0-9 ou X) ocupa a última posição
+ * em base 11, o que cabe folgadamente num long.
+ */
+final class Orcid {
+    /**
+     * Valor usado quando o texto não é um ORCID no formato canónico.
+     */
+    static final long INVALIDO = -1;
+
+    private Orcid() {
+    }
+
+    /**
+     * Compacta um ORCID num long.
+     *
+     * @param orcid o ORCID em texto
+     * @return a representação compacta, ou {@link #INVALIDO} se o texto não estiver no formato canónico
+     */
+    static long compactar(String orcid) {
+        if (orcid == null || orcid.length() != 19) return INVALIDO;
+        long valor = 0;
+        for (int i = 0; i < 18; i++) {
+            char c = orcid.charAt(i);
+            if (i % 5 == 4) {
+                if (c != '-') return INVALIDO;
+            } else if (c >= '0' && c <= '9') {
+                valor = valor * 10 + (c - '0');
+            } else {
+                return INVALIDO;
+            }
+        }
+        char controlo = orcid.charAt(18);
+        int digito;
+        if (controlo >= '0' && controlo <= '9') {
+            digito = controlo - '0';
+        } else if (controlo == 'X') {
+            digito = 10;
+        } else {
+            return INVALIDO;
+        }
+        return valor * 11 + digito;
+    }
+
+    /**
+     * Reconstrói o texto de um ORCID a partir da sua representação compacta.
+     *
+     * @param compacto a representação compacta
+     * @return o ORCID no formato 0000-0000-0000-000X
+     */
+    static String expandir(long compacto) {
+        int digito = (int) (compacto % 11);
+        long valor = compacto / 11;
+        char[] texto = new char[19];
+        texto[18] = digito == 10 ? 'X' : (char) ('0' + digito);
+        for (int i = 17; i >= 0; i--) {
+            if (i % 5 == 4) {
+                texto[i] = '-';
+            } else {
+                texto[i] = (char) ('0' + valor % 10);
+                valor /= 10;
+            }
+        }
+        return new String(texto);
+    }
+}
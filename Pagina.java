@@ -0,0 +1,58 @@
+package Projeto;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Página de resultados de uma listagem paginada. Cada página guarda a posição onde terminou, pelo que obter a
+ * página seguinte custa O(log n + tamanho da página), independentemente do número de páginas já lidas.
+ *
+ * @param <T> o tipo dos elementos da página
+ */
+public class Pagina<T> {
+    private final List<T> elementos;
+    private final Supplier<Pagina<T>> seguinte;
+
+    /**
+     * Construtor da classe Pagina.
+     *
+     * @param elementos os elementos da página
+     * @param seguinte  a função que obtém a página seguinte, ou null se esta for a última
+     */
+    Pagina(List<T> elementos, Supplier<Pagina<T>> seguinte) {
+        this.elementos = Collections.unmodifiableList(elementos);
+        this.seguinte = seguinte;
+    }
+
+    /**
+     * Obtém os elementos da página.
+     *
+     * @return uma lista imutável com os elementos da página
+     */
+    public List<T> getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Verifica se existe uma página seguinte.
+     *
+     * @return true se existirem mais elementos depois desta página
+     */
+    public boolean temSeguinte() {
+        return seguinte != null;
+    }
+
+    /**
+     * Obtém a página seguinte, a partir do estado atual da base de dados.
+     *
+     * @return a página seguinte
+     * @throws IllegalStateException se esta for a última página
+     */
+    public Pagina<T> seguinte() {
+        if (seguinte == null) {
+            throw new IllegalStateException("Não existem mais páginas");
+        }
+        return seguinte.get();
+    }
+}
@@ -0,0 +1,627 @@
+package Projeto;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Registo das operações que alteram uma {@link BaseDeDados}. Cada operação é registada com o bloqueio de escrita da
+ * base, logo depois de aplicada, e antes de a alteração ser dada como concluída a quem a pediu.
+ *
+ * <p>Cada operação é escrita como um registo com comprimento, CRC32, número de sequência e conteúdo.
+ * As escritas são acumuladas num buffer e enviadas para o disco em grupo: no modo
+ * {@link Durabilidade#SINCRONA} quem regista a operação espera pela sincronização com {@link #aguardar(long)},
+ * mas várias operações concorrentes partilham o mesmo fsync; no modo {@link Durabilidade#PERIODICA} uma thread
+ * de fundo sincroniza o registo a cada intervalo.</p>
+ *
+ * <p>Na recuperação, os registos são reaplicados por ordem até ao primeiro registo incompleto ou corrompido,
+ * que corresponde a uma escrita interrompida por uma falha.</p>
+ */
+final class RegistoOperacoes implements Closeable {
+    static final byte ADICIONAR_ARTIGO = 1;
+    static final byte REMOVER_ARTIGO = 2;
+    static final byte EDITAR_ARTIGO = 3;
+    static final byte ADICIONAR_AUTOR = 4;
+    static final byte REMOVER_AUTOR = 5;
+    static final byte EDITAR_AUTOR = 6;
+    static final byte ADICIONAR_AUTOR_ARTIGO = 7;
+    static final byte REMOVER_AUTOR_ARTIGO = 8;
+    static final byte REGISTAR_USO = 9;
+    static final byte SUBSTITUIR_USO = 10;
+
+    private static final int CABECALHO_REGISTO = 4 + 4;
+    private static final long INTERVALO_SINCRONIZACAO_MS = 50;
+
+    private final FileChannel canal;
+    private final Durabilidade durabilidade;
+    private final Object bloqueioDisco;
+    private final ScheduledExecutorService sincronizador;
+
+    private ByteArrayOutputStream pendentes;
+    private long proximaOperacao;
+    private long ultimaEscrita;
+    private long ultimaDuravel;
+    private long tamanho;
+
+    /**
+     * Abre o registo para acrescentar operações, truncando uma eventual cauda incompleta.
+     *
+     * @param ficheiro       o ficheiro do registo
+     * @param durabilidade   o nível de durabilidade pretendido
+     * @param tamanhoValido  o número de bytes válidos do ficheiro, obtido na recuperação
+     * @param ultimaOperacao o número de sequência da última operação conhecida
+     * @throws IOException se não for possível abrir o ficheiro
+     */
+    RegistoOperacoes(Path ficheiro, Durabilidade durabilidade, long tamanhoValido, long ultimaOperacao) throws IOException {
+        this.canal = FileChannel.open(ficheiro, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        this.canal.truncate(tamanhoValido);
+        this.canal.position(tamanhoValido);
+        this.durabilidade = durabilidade;
+        this.bloqueioDisco = new Object();
+        this.pendentes = new ByteArrayOutputStream();
+        this.proximaOperacao = ultimaOperacao + 1;
+        this.ultimaEscrita = ultimaOperacao;
+        this.ultimaDuravel = ultimaOperacao;
+        this.tamanho = tamanhoValido;
+        if (durabilidade == Durabilidade.PERIODICA) {
+            this.sincronizador = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "registo-operacoes");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.sincronizador.scheduleWithFixedDelay(this::sincronizarEmFundo,
+                    INTERVALO_SINCRONIZACAO_MS, INTERVALO_SINCRONIZACAO_MS, TimeUnit.MILLISECONDS);
+        } else {
+            this.sincronizador = null;
+        }
+    }
+
+    /**
+     * Obtém o número de sequência da última operação registada.
+     *
+     * @return o número de sequência da última operação
+     */
+    synchronized long ultimaOperacao() {
+        return proximaOperacao - 1;
+    }
+
+    /**
+     * Obtém o tamanho atual do registo, incluindo as operações ainda não escritas em disco.
+     *
+     * @return o tamanho do registo em bytes
+     */
+    synchronized long tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Regista a adição de um artigo.
+     *
+     * @param artigo o artigo adicionado
+     * @return o número de sequência da operação
+     * @throws IOException se ocorrer um erro de escrita
+     */
+    long adicionarArtigo(Artigo artigo) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream saida = new DataOutputStream(bytes);
+        saida.writeByte(ADICIONAR_ARTIGO);
+        escreverArtigo(saida, artigo);
+        return acrescentar(bytes.toByteArray());
+    }
+
+    /**
+     * Regista a remoção de um artigo.
+     *
+     * @param titulo o título do artigo removido
+     * @return o número de sequência da operação
+     * @throws IOException se ocorrer um erro de escrita
+     */
+    long removerArtigo(String titulo) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream saida = new DataOutputStream(bytes);
+        saida.writeByte(REMOVER_ARTIGO);
+        escreverTexto(saida, titulo);
+        return acrescentar(bytes.toByteArray());
+    }
+
+    /**
+     * Regista a edição de um artigo.
+     *
+     * @param titulo     o título do artigo editado
+     * @param novoArtigo o artigo que o substitui
+     * @return o número de sequência da operação
+     * @throws IOException se ocorrer um erro de escrita
+     */
+    long editarArtigo(String titulo, Artigo novoArtigo) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream saida = new DataOutputStream(bytes);
+        saida.writeByte(EDITAR_ARTIGO);
+        escreverTexto(saida, titulo);
+        escreverArtigo(saida, novoArtigo);
+        return acrescentar(bytes.toByteArray());
+    }
+
+    /**
+     * Regista a adição de um autor.
+     *
+     * @param autor o autor adicionado
+     * @return o número de sequência da operação
+     * @throws IOException se ocorrer um erro de escrita
+     */
+    long adicionarAutor(Autor autor) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream saida = new DataOutputStream(bytes);
+        saida.writeByte(ADICIONAR_AUTOR);
+        escreverAutor(saida, autor);
+        return acrescentar(bytes.toByteArray());
+    }
+
+    /**
+     * Regista a remoção de um autor.
+     *
+     * @param orcid o ORCID do autor removido
+     * @return o número de sequência da operação
+     * @throws IOException se ocorrer um erro de escrita
+     */
+    long removerAutor(String orcid) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream saida = new DataOutputStream(bytes);
+        saida.writeByte(REMOVER_AUTOR);
+        escreverTexto(saida, orcid);
+        return acrescentar(bytes.toByteArray());
+    }
+
+    /**
+     * Regista a edição de um autor.
+     *
+     * @param orcid     o ORCID do autor editado
+     * @param novoAutor o autor que o substitui
+     * @return o número de sequência da operação
+     * @throws IOException se ocorrer um erro de escrita
+     */
+    long editarAutor(String orcid, Autor novoAutor) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream saida = new DataOutputStream(bytes);
+        saida.writeByte(EDITAR_AUTOR);
+        escreverTexto(saida, orcid);
+        escreverAutor(saida, novoAutor);
+        return acrescentar(bytes.toByteArray());
+    }
+
+    /**
+     * Regista a adição de um autor a um artigo da base.
+     *
+     * @param titulo o título do artigo
+     * @param autor  o autor adicionado
+     * @return o número de sequência da operação
+     * @throws IOException se ocorrer um erro de escrita
+     */
+    long adicionarAutorArtigo(String titulo, Autor autor) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream saida = new DataOutputStream(bytes);
+        saida.writeByte(ADICIONAR_AUTOR_ARTIGO);
+        escreverTexto(saida, titulo);
+        escreverAutor(saida, autor);
+        return acrescentar(bytes.toByteArray());
+    }
+
+    /**
+     * Regista a remoção de um autor de um artigo da base.
+     *
+     * @param titulo o título do artigo
+     * @param orcid  o ORCID do autor removido
+     * @return o número de sequência da operação
+     * @throws IOException se ocorrer um erro de escrita
+     */
+    long removerAutorArtigo(String titulo, String orcid) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream saida = new DataOutputStream(bytes);
+        saida.writeByte(REMOVER_AUTOR_ARTIGO);
+        escreverTexto(saida, titulo);
+        escreverTexto(saida, orcid);
+        return acrescentar(bytes.toByteArray());
+    }
+
+    /**
+     * Regista uso de um artigo da base.
+     *
+     * @param titulo      o título do artigo
+     * @param tipos       o tipo de cada registo de uso
+     * @param dias        o número do dia de cada registo
+     * @param quantidades a quantidade de cada registo
+     * @param tamanho     o número de registos
+     * @return o número de sequência da operação
+     * @throws IOException se ocorrer um erro de escrita
+     */
+    long registarUso(String titulo, byte[] tipos, long[] dias, int[] quantidades, int tamanho) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream saida = new DataOutputStream(bytes);
+        saida.writeByte(REGISTAR_USO);
+        escreverTexto(saida, titulo);
+        saida.writeInt(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            saida.writeByte(tipos[i]);
+            saida.writeLong(dias[i]);
+            saida.writeInt(quantidades[i]);
+        }
+        return acrescentar(bytes.toByteArray());
+    }
+
+    /**
+     * Regista a substituição de uma série de uso de um artigo da base.
+     *
+     * @param titulo o título do artigo
+     * @param tipo   o tipo da série
+     * @param serie  a nova série
+     * @return o número de sequência da operação
+     * @throws IOException se ocorrer um erro de escrita
+     */
+    long substituirUso(String titulo, byte tipo, SerieTemporal serie) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream saida = new DataOutputStream(bytes);
+        saida.writeByte(SUBSTITUIR_USO);
+        escreverTexto(saida, titulo);
+        saida.writeByte(tipo);
+        escreverSerie(saida, serie);
+        return acrescentar(bytes.toByteArray());
+    }
+
+    /**
+     * Esvazia o registo depois de o seu conteúdo ter sido incorporado num snapshot.
+     *
+     * @throws IOException se ocorrer um erro de escrita
+     */
+    void truncar() throws IOException {
+        synchronized (bloqueioDisco) {
+            synchronized (this) {
+                pendentes = new ByteArrayOutputStream();
+                ultimaDuravel = ultimaEscrita;
+                tamanho = 0;
+            }
+            canal.truncate(0);
+            canal.position(0);
+            canal.force(true);
+        }
+    }
+
+    /**
+     * Grava em disco todas as operações registadas até ao momento.
+     *
+     * @throws IOException se ocorrer um erro de escrita
+     */
+    void sincronizar() throws IOException {
+        sincronizarAte(ultimaOperacao());
+    }
+
+    /**
+     * Sincroniza o registo e liberta o ficheiro.
+     *
+     * @throws IOException se ocorrer um erro de escrita
+     */
+    @Override
+    public void close() throws IOException {
+        if (sincronizador != null) {
+            sincronizador.shutdown();
+        }
+        sincronizar();
+        canal.close();
+    }
+
+    /**
+     * Espera até que uma operação registada esteja gravada em disco, se o nível de durabilidade o exigir.
+     * Separar o registo da espera permite registar a operação dentro de uma secção crítica e esperar fora dela,
+     * para que as escritas concorrentes partilhem a mesma sincronização.
+     *
+     * @param operacao o número de sequência da operação
+     * @throws IOException se ocorrer um erro de escrita
+     */
+    void aguardar(long operacao) throws IOException {
+        if (durabilidade == Durabilidade.SINCRONA) {
+            sincronizarAte(operacao);
+        }
+    }
+
+    /**
+     * Acrescenta uma operação ao buffer de operações pendentes, sem esperar que seja gravada em disco.
+     *
+     * @return o número de sequência atribuído à operação
+     */
+    private long acrescentar(byte[] conteudo) throws IOException {
+        long operacao;
+        synchronized (this) {
+            operacao = proximaOperacao++;
+            CRC32 crc = new CRC32();
+            ByteBuffer corpo = ByteBuffer.allocate(8 + conteudo.length);
+            corpo.putLong(operacao).put(conteudo);
+            crc.update(corpo.array());
+            DataOutputStream saida = new DataOutputStream(pendentes);
+            saida.writeInt(corpo.capacity());
+            saida.writeInt((int) crc.getValue());
+            saida.write(corpo.array());
+            ultimaEscrita = operacao;
+            tamanho += CABECALHO_REGISTO + corpo.capacity();
+        }
+        return operacao;
+    }
+
+    /**
+     * Garante que a operação indicada está em disco. A primeira thread a obter o bloqueio escreve e sincroniza
+     * todas as operações pendentes; as restantes encontram a sua operação já gravada e regressam de imediato.
+     */
+    private void sincronizarAte(long operacao) throws IOException {
+        synchronized (bloqueioDisco) {
+            byte[] lote;
+            long ultima;
+            synchronized (this) {
+                if (ultimaDuravel >= operacao) return;
+                lote = pendentes.toByteArray();
+                pendentes = new ByteArrayOutputStream();
+                ultima = ultimaEscrita;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(lote);
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            canal.force(false);
+            synchronized (this) {
+                ultimaDuravel = ultima;
+            }
+        }
+    }
+
+    private void sincronizarEmFundo() {
+        try {
+            sincronizar();
+        } catch (IOException e) {
+            System.err.println("Ocorreu um erro ao gravar o registo de operações: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reaplica numa base de dados as operações de um registo posteriores a um número de sequência.
+     *
+     * @param ficheiro     o ficheiro do registo
+     * @param base         a base de dados onde as operações serão reaplicadas
+     * @param desdeOperacao as operações com número de sequência até este valor já estão na base e são ignoradas
+     * @return um array com o número de bytes válidos do registo e o número de sequência da última operação lida
+     * @throws IOException se não for possível ler o ficheiro
+     */
+    static long[] reproduzir(Path ficheiro, BaseDeDados base, long desdeOperacao) throws IOException {
+        long ultima = desdeOperacao;
+        if (!Files.exists(ficheiro) || Files.size(ficheiro) == 0) {
+            return new long[]{0, ultima};
+        }
+        long valido = 0;
+        Map<Artigo, List<String>> referenciasPendentes = new IdentityHashMap<>();
+        try (FileChannel canal = FileChannel.open(ficheiro, StandardOpenOption.READ)) {
+            LeitorBinario leitor = new LeitorBinario(canal);
+            while (leitor.temMais(CABECALHO_REGISTO)) {
+                int comprimento = leitor.lerInt();
+                int crcEsperado = leitor.lerInt();
+                if (comprimento < 9 || !leitor.temMais(comprimento)) break;
+                byte[] corpo = new byte[comprimento];
+                leitor.lerBytes(corpo);
+                CRC32 crc = new CRC32();
+                crc.update(corpo);
+                if ((int) crc.getValue() != crcEsperado) break;
+                DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(corpo));
+                long operacao = entrada.readLong();
+                if (operacao > desdeOperacao) {
+                    aplicar(entrada, base, referenciasPendentes);
+                }
+                ultima = Math.max(ultima, operacao);
+                valido = leitor.posicao();
+            }
+        }
+        resolverReferencias(base, referenciasPendentes);
+        return new long[]{valido, ultima};
+    }
+
+    /**
+     * Liga as referências que não puderam ser resolvidas durante a reprodução, por citarem artigos adicionados
+     * mais tarde. Cada artigo com referências pendentes recebe de novo todas as suas referências, pela ordem
+     * registada, resolvidas entre os artigos da base no fim da reprodução.
+     */
+    private static void resolverReferencias(BaseDeDados base, Map<Artigo, List<String>> referenciasPendentes) {
+        for (Map.Entry<Artigo, List<String>> pendente : referenciasPendentes.entrySet()) {
+            List<Artigo> referencias = pendente.getKey().getReferencias();
+            referencias.clear();
+            for (String titulo : pendente.getValue()) {
+                Artigo referencia = base.procurarArtigoPorTitulo(titulo);
+                if (referencia != null) {
+                    referencias.add(referencia);
+                }
+            }
+        }
+    }
+
+    private static void aplicar(DataInputStream entrada, BaseDeDados base,
+                                Map<Artigo, List<String>> referenciasPendentes) throws IOException {
+        byte tipo = entrada.readByte();
+        switch (tipo) {
+            case ADICIONAR_ARTIGO:
+                base.aplicarAdicionarArtigo(lerArtigo(entrada, base, referenciasPendentes));
+                break;
+            case REMOVER_ARTIGO:
+                base.aplicarRemoverArtigo(lerTexto(entrada));
+                break;
+            case EDITAR_ARTIGO: {
+                String titulo = lerTexto(entrada);
+                base.aplicarEditarArtigo(titulo, lerArtigo(entrada, base, referenciasPendentes));
+                break;
+            }
+            case ADICIONAR_AUTOR:
+                base.aplicarAdicionarAutor(lerAutor(entrada));
+                break;
+            case REMOVER_AUTOR:
+                base.aplicarRemoverAutor(lerTexto(entrada));
+                break;
+            case EDITAR_AUTOR: {
+                String orcid = lerTexto(entrada);
+                base.aplicarEditarAutor(orcid, lerAutor(entrada));
+                break;
+            }
+            case ADICIONAR_AUTOR_ARTIGO: {
+                String titulo = lerTexto(entrada);
+                base.aplicarAdicionarAutorArtigo(titulo, lerAutor(entrada));
+                break;
+            }
+            case REMOVER_AUTOR_ARTIGO: {
+                String titulo = lerTexto(entrada);
+                base.aplicarRemoverAutorArtigo(titulo, lerTexto(entrada));
+                break;
+            }
+            case REGISTAR_USO: {
+                String titulo = lerTexto(entrada);
+                int tamanho = entrada.readInt();
+                byte[] tipos = new byte[tamanho];
+                long[] dias = new long[tamanho];
+                int[] quantidades = new int[tamanho];
+                for (int i = 0; i < tamanho; i++) {
+                    tipos[i] = entrada.readByte();
+                    dias[i] = entrada.readLong();
+                    quantidades[i] = entrada.readInt();
+                }
+                base.aplicarRegistarUso(titulo, tipos, dias, quantidades);
+                break;
+            }
+            case SUBSTITUIR_USO: {
+                String titulo = lerTexto(entrada);
+                byte tipoSerie = entrada.readByte();
+                SerieTemporal serie = new SerieTemporal();
+                lerSerie(entrada, serie);
+                base.aplicarSubstituirUso(titulo, tipoSerie, serie);
+                break;
+            }
+            default:
+                throw new IOException("Tipo de operação desconhecido no registo: " + tipo);
+        }
+    }
+
+    private static void escreverArtigo(DataOutputStream saida, Artigo artigo) throws IOException {
+        escreverTexto(saida, artigo.getTitulo());
+        escreverTexto(saida, artigo.getResumo());
+        saida.writeByte(artigo.getTipo() == null ? -1 : artigo.getTipo().ordinal());
+        saida.writeLong(artigo.getData().getTime());
+        List<String> palavras = artigo.getPalavrasChave();
+        saida.writeInt(palavras.size());
+        for (String palavra : palavras) {
+            escreverTexto(saida, palavra);
+        }
+        synchronized (artigo) {
+            escreverSerie(saida, artigo.getSerieVisualizacoes());
+            escreverSerie(saida, artigo.getSerieDownloads());
+            escreverSerie(saida, artigo.getSerieLikes());
+        }
+        List<Autor> autores = artigo.getAutores();
+        saida.writeInt(autores.size());
+        for (Autor autor : autores) {
+            escreverAutor(saida, autor);
+        }
+        List<Artigo> referencias = artigo.getReferencias();
+        saida.writeInt(referencias.size());
+        for (Artigo referencia : referencias) {
+            escreverTexto(saida, referencia.getTitulo());
+        }
+    }
+
+    /**
+     * Reconstrói um artigo. Os autores já registados na base são reutilizados pelo ORCID e as referências
+     * são resolvidas pelo título entre os artigos da base; se algum título ainda não estiver na base, os títulos
+     * das referências ficam pendentes até ao fim da reprodução.
+     */
+    private static Artigo lerArtigo(DataInputStream entrada, BaseDeDados base,
+                                    Map<Artigo, List<String>> referenciasPendentes) throws IOException {
+        String titulo = lerTexto(entrada);
+        String resumo = lerTexto(entrada);
+        byte tipo = entrada.readByte();
+        Date data = new Date(entrada.readLong());
+        int numeroPalavras = entrada.readInt();
+        List<String> palavras = new ArrayList<>(numeroPalavras);
+        for (int i = 0; i < numeroPalavras; i++) {
+            palavras.add(lerTexto(entrada));
+        }
+        Artigo artigo = new Artigo(titulo, palavras, resumo, tipo < 0 ? null : TipoPublicacao.values()[tipo], data);
+        lerSerie(entrada, artigo.getSerieVisualizacoes());
+        lerSerie(entrada, artigo.getSerieDownloads());
+        lerSerie(entrada, artigo.getSerieLikes());
+        int numeroAutores = entrada.readInt();
+        for (int i = 0; i < numeroAutores; i++) {
+            Autor registado = lerAutor(entrada);
+            Autor existente = base.procurarAutorPorID(registado.getOrcid());
+            artigo.adicionarAutor(existente != null ? existente : registado);
+        }
+        int numeroReferencias = entrada.readInt();
+        List<String> titulos = new ArrayList<>(numeroReferencias);
+        boolean pendentes = false;
+        for (int i = 0; i < numeroReferencias; i++) {
+            String tituloReferencia = lerTexto(entrada);
+            titulos.add(tituloReferencia);
+            Artigo referencia = base.procurarArtigoPorTitulo(tituloReferencia);
+            if (referencia != null) {
+                artigo.getReferencias().add(referencia);
+            } else {
+                pendentes = true;
+            }
+        }
+        if (pendentes) {
+            referenciasPendentes.put(artigo, titulos);
+        }
+        return artigo;
+    }
+
+    private static void escreverAutor(DataOutputStream saida, Autor autor) throws IOException {
+        escreverTexto(saida, autor.getNome());
+        escreverTexto(saida, autor.getNomeCientifico());
+        escreverTexto(saida, autor.getFiliacao());
+        escreverTexto(saida, autor.getOrcid());
+        escreverTexto(saida, autor.getCienciaID());
+        escreverTexto(saida, autor.getGoogleScholarID());
+        escreverTexto(saida, autor.getScopusAuthorID());
+    }
+
+    private static Autor lerAutor(DataInputStream entrada) throws IOException {
+        return new Autor(lerTexto(entrada), lerTexto(entrada), lerTexto(entrada), lerTexto(entrada),
+                lerTexto(entrada), lerTexto(entrada), lerTexto(entrada));
+    }
+
+    private static void escreverSerie(DataOutputStream saida, SerieTemporal serie) throws IOException {
+        saida.writeInt(serie.tamanho());
+        for (int i = 0; i < serie.tamanho(); i++) {
+            saida.writeLong(serie.diaEm(i));
+            saida.writeInt(serie.contagemEm(i));
+        }
+    }
+
+    private static void lerSerie(DataInputStream entrada, SerieTemporal serie) throws IOException {
+        int tamanho = entrada.readInt();
+        for (int i = 0; i < tamanho; i++) {
+            serie.registar(entrada.readLong(), entrada.readInt());
+        }
+    }
+
+    private static void escreverTexto(DataOutputStream saida, String texto) throws IOException {
+        saida.writeBoolean(texto != null);
+        if (texto != null) {
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            saida.writeInt(bytes.length);
+            saida.write(bytes);
+        }
+    }
+
+    private static String lerTexto(DataInputStream entrada) throws IOException {
+        if (!entrada.readBoolean()) return null;
+        byte[] bytes = new byte[entrada.readInt()];
+        entrada.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
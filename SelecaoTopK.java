@@ -0,0 +1,92 @@
+package Projeto;
+
+import edu.princeton.cs.algs4.*;
+
+import java.util.*;
+
+/**
+ * Seleção dos k artigos com maior valor de uma métrica, usando uma fila de prioridade mínima limitada a k elementos.
+ * Processar n artigos custa O(n log k) em tempo e O(k) em memória.
+ */
+class SelecaoTopK {
+    /**
+     * Número de artigos a partir do qual a seleção é dividida entre os núcleos disponíveis.
+     */
+    static final int LIMIAR_PARALELO = 1 << 15;
+
+    private final int k;
+    private final MinPQ<Candidato> heap;
+
+    /**
+     * Construtor da classe SelecaoTopK.
+     *
+     * @param k o número máximo de artigos a selecionar
+     */
+    SelecaoTopK(int k) {
+        this.k = k;
+        this.heap = new MinPQ<>(k + 1, SelecaoTopK::comparar);
+    }
+
+    /**
+     * Considera um artigo para a seleção. Artigos com valor nulo ou negativo são ignorados.
+     *
+     * @param artigo o artigo
+     * @param chave  a chave temporal do artigo, usada para desempatar a favor dos artigos mais antigos
+     * @param valor  o valor da métrica para o artigo
+     */
+    void considerar(Artigo artigo, ChaveTemporal chave, double valor) {
+        if (valor <= 0 || k == 0) return;
+        Candidato candidato = new Candidato(artigo, chave, valor);
+        if (heap.size() < k) {
+            heap.insert(candidato);
+        } else if (comparar(candidato, heap.min()) > 0) {
+            heap.delMin();
+            heap.insert(candidato);
+        }
+    }
+
+    /**
+     * Junta os candidatos de outra seleção a esta.
+     *
+     * @param outra a outra seleção
+     */
+    void juntar(SelecaoTopK outra) {
+        for (Candidato candidato : outra.heap) {
+            considerar(candidato.artigo, candidato.chave, candidato.valor);
+        }
+    }
+
+    /**
+     * Obtém os artigos selecionados, do maior para o menor valor.
+     *
+     * @return a lista dos artigos selecionados
+     */
+    List<Artigo> resultado() {
+        List<Artigo> resultado = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            resultado.add(heap.delMin().artigo);
+        }
+        Collections.reverse(resultado);
+        return resultado;
+    }
+
+    /**
+     * Ordena os candidatos por valor crescente; em caso de empate, o artigo mais recente é considerado menor.
+     */
+    private static int comparar(Candidato a, Candidato b) {
+        int cmp = Double.compare(a.valor, b.valor);
+        return cmp != 0 ? cmp : b.chave.compareTo(a.chave);
+    }
+
+    private static class Candidato {
+        private final Artigo artigo;
+        private final ChaveTemporal chave;
+        private final double valor;
+
+        Candidato(Artigo artigo, ChaveTemporal chave, double valor) {
+            this.artigo = artigo;
+            this.chave = chave;
+            this.valor = valor;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package Projeto;
+
+import java.util.*;
+
+/**
+ * Série temporal compacta de contagens diárias (por exemplo, visualizações ou downloads de um artigo).
+ * Os dias são guardados como números de dias desde a época (UTC) num array ordenado de longs, com as
+ * contagens num array paralelo de ints. Uma árvore de Fenwick sobre as posições permite obter a soma
+ * de qualquer intervalo de datas em O(log n).
+ * Os totais por mês e por ano são mantidos a cada registo, para que as agregações por mês ou por ano custem
+ * O(log n + número de meses ou anos), sem percorrer os dias.
+ */
+class SerieTemporal {
+    private static final long MILISSEGUNDOS_POR_DIA = 24L * 60 * 60 * 1000;
+    private static final int CAPACIDADE_INICIAL = 4;
+
+    private int tamanho;
+    private long[] dias;
+    private int[] contagens;
+    private long[] fenwick;
+    private final Totais meses;
+    private final Totais anos;
+
+    /**
+     * Construtor da classe SerieTemporal.
+     * Inicializa uma série vazia.
+     */
+    public SerieTemporal() {
+        this.dias = new long[CAPACIDADE_INICIAL];
+        this.contagens = new int[CAPACIDADE_INICIAL];
+        this.fenwick = new long[CAPACIDADE_INICIAL + 1];
+        this.meses = new Totais(Granularidade.MES);
+        this.anos = new Totais(Granularidade.ANO);
+    }
+
+    /**
+     * Converte uma data no número do dia (UTC) a que pertence.
+     *
+     * @param data a data
+     * @return o número de dias desde 1970-01-01
+     */
+    static long dia(Date data) {
+        return Math.floorDiv(data.getTime(), MILISSEGUNDOS_POR_DIA);
+    }
+
+    /**
+     * Converte o número de um dia na data do seu início (UTC).
+     *
+     * @param dia o número de dias desde 1970-01-01
+     * @return a data correspondente ao início desse dia
+     */
+    static Date data(long dia) {
+        return new Date(dia * MILISSEGUNDOS_POR_DIA);
+    }
+
+    /**
+     * Obtém o número de dias com registos na série.
+     *
+     * @return o número de dias distintos
+     */
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Obtém o número do dia numa posição da série.
+     *
+     * @param i a posição, entre 0 e tamanho() - 1
+     * @return o número do dia, por ordem crescente das posições
+     */
+    long diaEm(int i) {
+        return dias[i];
+    }
+
+    /**
+     * Obtém a contagem numa posição da série.
+     *
+     * @param i a posição, entre 0 e tamanho() - 1
+     * @return a contagem do dia nessa posição
+     */
+    int contagemEm(int i) {
+        return contagens[i];
+    }
+
+    /**
+     * Soma uma quantidade à contagem do dia a que pertence uma data.
+     *
+     * @param data       a data do registo
+     * @param quantidade a quantidade a somar
+     */
+    public void registar(Date data, int quantidade) {
+        registar(dia(data), quantidade);
+    }
+
+    /**
+     * Soma uma quantidade à contagem de um dia. Registos no dia mais recente, ou num dia já existente,
+     * custam O(log n); um dia novo inserido no meio da série obriga a deslocar os dias seguintes.
+     *
+     * @param dia        o número do dia
+     * @param quantidade a quantidade a somar
+     * @return true se o dia ainda não tinha registos
+     */
+    public boolean registar(long dia, int quantidade) {
+        meses.somar(dia, quantidade);
+        anos.somar(dia, quantidade);
+        int i = procurar(dia);
+        if (i >= 0) {
+            contagens[i] += quantidade;
+            atualizarFenwick(i, quantidade);
+            return false;
+        }
+        int posicao = -(i + 1);
+        if (tamanho == dias.length) {
+            dias = Arrays.copyOf(dias, tamanho * 2);
+            contagens = Arrays.copyOf(contagens, tamanho * 2);
+            fenwick = new long[tamanho * 2 + 1];
+            inserir(posicao, dia, quantidade);
+            reconstruirFenwick();
+        } else if (posicao == tamanho) {
+            inserir(posicao, dia, quantidade);
+            acrescentarFenwick();
+        } else {
+            inserir(posicao, dia, quantidade);
+            reconstruirFenwick();
+        }
+        return true;
+    }
+
+    /**
+     * Obtém a soma das contagens entre duas datas, inclusive, com resolução ao dia.
+     *
+     * @param inicio a data de início do período
+     * @param fim    a data de fim do período
+     * @return a soma das contagens dos dias do período
+     */
+    public long soma(Date inicio, Date fim) {
+        return soma(dia(inicio), dia(fim));
+    }
+
+    /**
+     * Obtém a soma das contagens entre dois dias, inclusive.
+     *
+     * @param diaInicio o primeiro dia do período
+     * @param diaFim    o último dia do período
+     * @return a soma das contagens dos dias do período
+     */
+    public long soma(long diaInicio, long diaFim) {
+        if (diaInicio > diaFim) return 0;
+        int de = limiteInferior(diaInicio);
+        int ate = limiteInferior(diaFim + 1);
+        return prefixo(ate) - prefixo(de);
+    }
+
+    /**
+     * Obtém os totais por dia, por mês ou por ano entre duas datas, inclusive. Cada total é indexado pela data de
+     * início do dia, mês ou ano (UTC); os meses ou anos que o período só cobre em parte contam apenas os dias do
+     * período. Só constam os intervalos com total diferente de zero.
+     *
+     * @param granularidade o intervalo de agregação
+     * @param inicio        a data de início do período
+     * @param fim           a data de fim do período
+     * @return um novo mapa ordenado das datas de início dos intervalos para os totais
+     */
+    public SortedMap<Date, Long> agregar(Granularidade granularidade, Date inicio, Date fim) {
+        SortedMap<Date, Long> resultado = new TreeMap<>();
+        long diaInicio = dia(inicio);
+        long diaFim = dia(fim);
+        if (diaInicio > diaFim) return resultado;
+        if (granularidade == Granularidade.DIA) {
+            for (int i = limiteInferior(diaInicio); i < tamanho && dias[i] <= diaFim; i++) {
+                if (contagens[i] != 0) {
+                    resultado.put(data(dias[i]), (long) contagens[i]);
+                }
+            }
+            return resultado;
+        }
+        Totais totais = granularidade == Granularidade.MES ? meses : anos;
+        long ultimo = granularidade.intervalo(diaFim);
+        for (int i = totais.limiteInferior(granularidade.intervalo(diaInicio));
+             i < totais.tamanho && totais.intervalos[i] <= ultimo; i++) {
+            long primeiroDia = granularidade.primeiroDia(totais.intervalos[i]);
+            long ultimoDia = granularidade.primeiroDia(totais.intervalos[i] + 1) - 1;
+            long total = primeiroDia >= diaInicio && ultimoDia <= diaFim
+                    ? totais.totais[i] : soma(Math.max(primeiroDia, diaInicio), Math.min(ultimoDia, diaFim));
+            if (total != 0) {
+                resultado.put(data(primeiroDia), total);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Verifica se existe algum registo entre duas datas, inclusive, com resolução ao dia.
+     *
+     * @param inicio a data de início do período
+     * @param fim    a data de fim do período
+     * @return true se houver pelo menos um dia com registos no período
+     */
+    public boolean temRegistos(Date inicio, Date fim) {
+        long diaInicio = dia(inicio);
+        long diaFim = dia(fim);
+        return diaInicio <= diaFim && limiteInferior(diaFim + 1) > limiteInferior(diaInicio);
+    }
+
+    /**
+     * Obtém a soma de todas as contagens da série.
+     *
+     * @return o total da série
+     */
+    public long total() {
+        return prefixo(tamanho);
+    }
+
+    /**
+     * Converte a série num mapa de datas (início de cada dia) para contagens.
+     *
+     * @return um novo mapa com as contagens de cada dia
+     */
+    public Map<Date, Integer> paraMapa() {
+        Map<Date, Integer> mapa = new HashMap<>();
+        for (int i = 0; i < tamanho; i++) {
+            mapa.put(data(dias[i]), contagens[i]);
+        }
+        return mapa;
+    }
+
+    /**
+     * Cria uma série a partir de um mapa de datas para contagens. Datas do mesmo dia são somadas.
+     *
+     * @param mapa o mapa de datas para contagens
+     * @return uma nova série com as contagens do mapa
+     */
+    public static SerieTemporal deMapa(Map<Date, Integer> mapa) {
+        SerieTemporal serie = new SerieTemporal();
+        if (mapa == null) return serie;
+        List<Date> datas = new ArrayList<>(mapa.keySet());
+        Collections.sort(datas);
+        for (Date data : datas) {
+            serie.registar(data, mapa.get(data));
+        }
+        return serie;
+    }
+
+    private void inserir(int posicao, long dia, int quantidade) {
+        System.arraycopy(dias, posicao, dias, posicao + 1, tamanho - posicao);
+        System.arraycopy(contagens, posicao, contagens, posicao + 1, tamanho - posicao);
+        dias[posicao] = dia;
+        contagens[posicao] = quantidade;
+        tamanho++;
+    }
+
+    private int procurar(long dia) {
+        return Arrays.binarySearch(dias, 0, tamanho, dia);
+    }
+
+    /**
+     * Obtém a primeira posição cujo dia é maior ou igual ao dia indicado.
+     */
+    private int limiteInferior(long dia) {
+        int i = procurar(dia);
+        return i >= 0 ? i : -(i + 1);
+    }
+
+    /**
+     * Soma das contagens nas primeiras n posições.
+     */
+    private long prefixo(int n) {
+        long soma = 0;
+        for (int i = n; i > 0; i -= i & -i) {
+            soma += fenwick[i];
+        }
+        return soma;
+    }
+
+    private void atualizarFenwick(int posicao, int quantidade) {
+        for (int i = posicao + 1; i <= tamanho; i += i & -i) {
+            fenwick[i] += quantidade;
+        }
+    }
+
+    /**
+     * Calcula o nó de Fenwick da última posição depois de um registo acrescentado no fim da série.
+     */
+    private void acrescentarFenwick() {
+        int i = tamanho;
+        fenwick[i] = contagens[i - 1] + prefixo(i - 1) - prefixo(i - (i & -i));
+    }
+
+    /**
+     * Totais de uma série por mês ou por ano, em arrays ordenados pelo número do intervalo.
+     * Guarda o último dia convertido, porque os registos seguidos costumam ser do mesmo dia.
+     */
+    private static final class Totais {
+        private final Granularidade granularidade;
+        private long[] intervalos = new long[CAPACIDADE_INICIAL];
+        private long[] totais = new long[CAPACIDADE_INICIAL];
+        private int tamanho;
+        private long ultimoDia = Long.MIN_VALUE;
+        private long ultimoIntervalo;
+
+        Totais(Granularidade granularidade) {
+            this.granularidade = granularidade;
+        }
+
+        void somar(long dia, int quantidade) {
+            if (dia != ultimoDia) {
+                ultimoIntervalo = granularidade.intervalo(dia);
+                ultimoDia = dia;
+            }
+            int i = Arrays.binarySearch(intervalos, 0, tamanho, ultimoIntervalo);
+            if (i >= 0) {
+                totais[i] += quantidade;
+                return;
+            }
+            int posicao = -(i + 1);
+            if (tamanho == intervalos.length) {
+                intervalos = Arrays.copyOf(intervalos, tamanho * 2);
+                totais = Arrays.copyOf(totais, tamanho * 2);
+            }
+            System.arraycopy(intervalos, posicao, intervalos, posicao + 1, tamanho - posicao);
+            System.arraycopy(totais, posicao, totais, posicao + 1, tamanho - posicao);
+            intervalos[posicao] = ultimoIntervalo;
+            totais[posicao] = quantidade;
+            tamanho++;
+        }
+
+        /**
+         * Obtém a primeira posição cujo intervalo é maior ou igual ao indicado.
+         */
+        int limiteInferior(long intervalo) {
+            int i = Arrays.binarySearch(intervalos, 0, tamanho, intervalo);
+            return i >= 0 ? i : -(i + 1);
+        }
+    }
+
+    private void reconstruirFenwick() {
+        Arrays.fill(fenwick, 0);
+        for (int i = 1; i <= tamanho; i++) {
+            fenwick[i] += contagens[i - 1];
+            int pai = i + (i & -i);
+            if (pai <= tamanho) {
+                fenwick[pai] += fenwick[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package Projeto;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Formato binário versionado para guardar e carregar uma {@link BaseDeDados} completa.
+ *
+ * <p>O ficheiro é composto por um cabeçalho (número mágico, versão e número de sequência da última
+ * operação do registo incorporada no snapshot) seguido das secções:
+ * tabela de textos, autores, autores arquivados, artigos (com as séries de uso), ligações
+ * artigo-autor e arestas de citação. Os textos são escritos uma única vez na tabela e referidos
+ * pelo seu índice nas restantes secções. As colaborações entre autores ficam implícitas nas
+ * ligações artigo-autor.</p>
+ *
+ * <p>A escrita é feita através de um {@link FileChannel} para um ficheiro temporário, que só
+ * substitui o anterior no fim; a leitura usa um ficheiro mapeado em memória e entrega os autores e os
+ * artigos lidos à base de uma só vez, para que os índices sejam construídos uma única vez.</p>
+ */
+final class SnapshotBaseDeDados {
+    static final int NUMERO_MAGICO = 0x4C504244;
+    static final int VERSAO = 2;
+
+    private SnapshotBaseDeDados() {
+    }
+
+    /**
+     * Escreve uma base de dados num ficheiro de snapshot.
+     *
+     * @param base     a base de dados
+     * @param ficheiro o caminho do ficheiro
+     * @throws IOException se ocorrer um erro de escrita
+     */
+    static void escrever(BaseDeDados base, Path ficheiro) throws IOException {
+        List<Artigo> artigos = base.listarArtigos();
+        List<Autor> registados = base.listarAutores();
+
+        // Os autores referidos por artigos mas já removidos da base também são guardados, sem registo
+        Map<Autor, Integer> autores = new IdentityHashMap<>();
+        List<Autor> ordemAutores = new ArrayList<>(registados);
+        for (Autor autor : registados) {
+            autores.put(autor, autores.size());
+        }
+        for (Artigo artigo : artigos) {
+            for (Autor autor : artigo.getAutores()) {
+                if (!autores.containsKey(autor)) {
+                    autores.put(autor, autores.size());
+                    ordemAutores.add(autor);
+                }
+            }
+        }
+
+        TabelaTextos textos = new TabelaTextos();
+        for (Autor autor : ordemAutores) {
+            textos.registarAutor(autor);
+        }
+        for (Map.Entry<String, String> arquivado : base.getAutoresArquivados().entrySet()) {
+            textos.id(arquivado.getKey());
+            textos.id(arquivado.getValue());
+        }
+        for (Artigo artigo : artigos) {
+            textos.id(artigo.getTitulo());
+            textos.id(artigo.getResumo());
+            for (String palavra : artigo.getPalavrasChave()) {
+                textos.id(palavra);
+            }
+        }
+
+        Path temporario = ficheiro.resolveSibling(ficheiro.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             EscritorBinario escritor = new EscritorBinario(canal)) {
+            escritor.escreverInt(NUMERO_MAGICO);
+            escritor.escreverInt(VERSAO);
+            escritor.escreverLong(base.getUltimaOperacao());
+
+            escritor.escreverInt(textos.lista.size());
+            for (String texto : textos.lista) {
+                escritor.escreverTexto(texto);
+            }
+
+            escritor.escreverInt(ordemAutores.size());
+            escritor.escreverInt(registados.size());
+            for (Autor autor : ordemAutores) {
+                escritor.escreverInt(textos.id(autor.getNome()));
+                escritor.escreverInt(textos.id(autor.getNomeCientifico()));
+                escritor.escreverInt(textos.id(autor.getFiliacao()));
+                escritor.escreverInt(textos.id(autor.getOrcid()));
+                escritor.escreverInt(textos.id(autor.getCienciaID()));
+                escritor.escreverInt(textos.id(autor.getGoogleScholarID()));
+                escritor.escreverInt(textos.id(autor.getScopusAuthorID()));
+            }
+
+            escritor.escreverInt(base.getAutoresArquivados().size());
+            for (Map.Entry<String, String> arquivado : base.getAutoresArquivados().entrySet()) {
+                escritor.escreverInt(textos.id(arquivado.getKey()));
+                escritor.escreverInt(textos.id(arquivado.getValue()));
+            }
+
+            Map<Artigo, Integer> indicesArtigos = new IdentityHashMap<>();
+            escritor.escreverInt(artigos.size());
+            for (Artigo artigo : artigos) {
+                indicesArtigos.put(artigo, indicesArtigos.size());
+                escritor.escreverInt(textos.id(artigo.getTitulo()));
+                escritor.escreverInt(textos.id(artigo.getResumo()));
+                escritor.escreverByte(artigo.getTipo() == null ? -1 : artigo.getTipo().ordinal());
+                escritor.escreverLong(artigo.getData().getTime());
+                List<String> palavras = artigo.getPalavrasChave();
+                escritor.escreverInt(palavras.size());
+                for (String palavra : palavras) {
+                    escritor.escreverInt(textos.id(palavra));
+                }
+                synchronized (artigo) {
+                    escreverSerie(escritor, artigo.getSerieVisualizacoes());
+                    escreverSerie(escritor, artigo.getSerieDownloads());
+                    escreverSerie(escritor, artigo.getSerieLikes());
+                }
+            }
+
+            for (Artigo artigo : artigos) {
+                List<Autor> autoresArtigo = artigo.getAutores();
+                escritor.escreverInt(autoresArtigo.size());
+                for (Autor autor : autoresArtigo) {
+                    escritor.escreverInt(autores.get(autor));
+                }
+            }
+
+            // Só são guardadas as citações entre artigos presentes na base
+            List<int[]> citacoes = new ArrayList<>();
+            for (Artigo artigo : artigos) {
+                for (Artigo referencia : artigo.getReferencias()) {
+                    Integer destino = indicesArtigos.get(referencia);
+                    if (destino != null) {
+                        citacoes.add(new int[]{indicesArtigos.get(artigo), destino});
+                    }
+                }
+            }
+            escritor.escreverInt(citacoes.size());
+            for (int[] citacao : citacoes) {
+                escritor.escreverInt(citacao[0]);
+                escritor.escreverInt(citacao[1]);
+            }
+            escritor.descarregar();
+            canal.force(true);
+        }
+        Files.move(temporario, ficheiro, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        sincronizarDiretorio(ficheiro.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Grava em disco a entrada do diretório criada pela mudança de nome do snapshot. Sem isto, uma falha de energia
+     * pode desfazer a mudança de nome depois de o registo de operações ter sido esvaziado.
+     * Em sistemas que não permitem abrir diretórios (Windows) a sincronização não é possível e é ignorada.
+     */
+    private static void sincronizarDiretorio(Path diretorio) throws IOException {
+        try (FileChannel canal = FileChannel.open(diretorio, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (AccessDeniedException e) {
+            // Não é possível abrir o diretório neste sistema
+        }
+    }
+
+    /**
+     * Lê uma base de dados de um ficheiro de snapshot.
+     *
+     * @param ficheiro o caminho do ficheiro
+     * @return a base de dados reconstruída
+     * @throws IOException se o ficheiro não puder ser lido ou não for um snapshot válido
+     */
+    static BaseDeDados ler(Path ficheiro) throws IOException {
+        try (FileChannel canal = FileChannel.open(ficheiro, StandardOpenOption.READ)) {
+            LeitorBinario leitor = new LeitorBinario(canal);
+            if (leitor.lerInt() != NUMERO_MAGICO) {
+                throw new IOException("O ficheiro " + ficheiro + " não é um snapshot da base de dados");
+            }
+            int versao = leitor.lerInt();
+            if (versao < 1 || versao > VERSAO) {
+                throw new IOException("Versão de snapshot não suportada: " + versao);
+            }
+            // A versão 1 não tinha registo de operações associado
+            long ultimaOperacao = versao >= 2 ? leitor.lerLong() : 0;
+
+            String[] textos = new String[leitor.lerInt()];
+            for (int i = 0; i < textos.length; i++) {
+                textos[i] = leitor.lerTexto();
+            }
+
+            Autor[] autores = new Autor[leitor.lerInt()];
+            int registados = leitor.lerInt();
+            for (int i = 0; i < autores.length; i++) {
+                autores[i] = new Autor(texto(textos, leitor.lerInt()), texto(textos, leitor.lerInt()),
+                        texto(textos, leitor.lerInt()), texto(textos, leitor.lerInt()), texto(textos, leitor.lerInt()),
+                        texto(textos, leitor.lerInt()), texto(textos, leitor.lerInt()));
+            }
+
+            Map<String, String> arquivados = new HashMap<>();
+            int numeroArquivados = leitor.lerInt();
+            for (int i = 0; i < numeroArquivados; i++) {
+                arquivados.put(texto(textos, leitor.lerInt()), texto(textos, leitor.lerInt()));
+            }
+
+            TipoPublicacao[] tipos = TipoPublicacao.values();
+            Artigo[] artigos = new Artigo[leitor.lerInt()];
+            for (int i = 0; i < artigos.length; i++) {
+                String titulo = texto(textos, leitor.lerInt());
+                String resumo = texto(textos, leitor.lerInt());
+                byte tipo = leitor.lerByte();
+                Date data = new Date(leitor.lerLong());
+                List<String> palavras = new ArrayList<>();
+                int numeroPalavras = leitor.lerInt();
+                for (int p = 0; p < numeroPalavras; p++) {
+                    palavras.add(texto(textos, leitor.lerInt()));
+                }
+                Artigo artigo = new Artigo(titulo, palavras, resumo, tipo < 0 ? null : tipos[tipo], data);
+                lerSerie(leitor, artigo.getSerieVisualizacoes());
+                lerSerie(leitor, artigo.getSerieDownloads());
+                lerSerie(leitor, artigo.getSerieLikes());
+                artigos[i] = artigo;
+            }
+
+            for (Artigo artigo : artigos) {
+                int numeroAutores = leitor.lerInt();
+                for (int a = 0; a < numeroAutores; a++) {
+                    artigo.adicionarAutor(autores[leitor.lerInt()]);
+                }
+            }
+
+            int numeroCitacoes = leitor.lerInt();
+            for (int c = 0; c < numeroCitacoes; c++) {
+                Artigo de = artigos[leitor.lerInt()];
+                de.getReferencias().add(artigos[leitor.lerInt()]);
+            }
+
+            BaseDeDados base = new BaseDeDados();
+            base.carregar(Arrays.asList(autores).subList(0, registados), Arrays.asList(artigos), arquivados);
+            base.setUltimaOperacao(ultimaOperacao);
+            return base;
+        }
+    }
+
+    private static void escreverSerie(EscritorBinario escritor, SerieTemporal serie) throws IOException {
+        escritor.escreverInt(serie.tamanho());
+        for (int i = 0; i < serie.tamanho(); i++) {
+            escritor.escreverLong(serie.diaEm(i));
+            escritor.escreverInt(serie.contagemEm(i));
+        }
+    }
+
+    private static void lerSerie(LeitorBinario leitor, SerieTemporal serie) throws IOException {
+        int tamanho = leitor.lerInt();
+        for (int i = 0; i < tamanho; i++) {
+            serie.registar(leitor.lerLong(), leitor.lerInt());
+        }
+    }
+
+    private static String texto(String[] textos, int id) {
+        return id < 0 ? null : textos[id];
+    }
+
+    /**
+     * Tabela de textos distintos do snapshot, pela ordem em que foram registados.
+     */
+    private static class TabelaTextos {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> lista = new ArrayList<>();
+
+        int id(String texto) {
+            if (texto == null) return -1;
+            Integer id = ids.get(texto);
+            if (id == null) {
+                id = lista.size();
+                ids.put(texto, id);
+                lista.add(texto);
+            }
+            return id;
+        }
+
+        void registarAutor(Autor autor) {
+            id(autor.getNome());
+            id(autor.getNomeCientifico());
+            id(autor.getFiliacao());
+            id(autor.getOrcid());
+            id(autor.getCienciaID());
+            id(autor.getGoogleScholarID());
+            id(autor.getScopusAuthorID());
+        }
+    }
+}
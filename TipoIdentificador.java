@@ -0,0 +1,41 @@
+package Projeto;
+/**
+ * Enumeração que representa os identificadores pelos quais um autor pode ser procurado.
+ */
+public enum TipoIdentificador {
+    /**
+     * Identificador ORCID.
+     */
+    ORCID,
+    /**
+     * Identificador Ciência ID.
+     */
+    CIENCIA_ID,
+    /**
+     * Identificador Google Scholar.
+     */
+    GOOGLE_SCHOLAR_ID,
+    /**
+     * Identificador de autor Scopus.
+     */
+    SCOPUS_ID;
+
+    /**
+     * Obtém o identificador deste tipo de um autor.
+     *
+     * @param autor o autor
+     * @return o identificador do autor, ou null se não estiver definido
+     */
+    String de(Autor autor) {
+        switch (this) {
+            case ORCID:
+                return autor.getOrcid();
+            case CIENCIA_ID:
+                return autor.getCienciaID();
+            case GOOGLE_SCHOLAR_ID:
+                return autor.getGoogleScholarID();
+            default:
+                return autor.getScopusAuthorID();
+        }
+    }
+}
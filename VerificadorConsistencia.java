@@ -0,0 +1,90 @@
+package Projeto;
+
+import java.util.HashMap;
+
+/**
+ * Mantém, de forma incremental, o número de referências de artigos a autores que não estão registados na base
+ * de dados. Cada alteração atualiza as contagens em O(1), pelo que verificar a consistência não obriga a percorrer
+ * os artigos.
+ */
+class VerificadorConsistencia {
+    private final HashMap<String, Integer> referenciasPorOrcid;
+    private long referenciasPendentes;
+
+    /**
+     * Construtor da classe VerificadorConsistencia.
+     * Inicializa um verificador sem referências.
+     */
+    VerificadorConsistencia() {
+        this.referenciasPorOrcid = new HashMap<>();
+        this.referenciasPendentes = 0;
+    }
+
+    /**
+     * Regista uma nova referência de um artigo da base a um autor.
+     *
+     * @param orcid     o ORCID do autor referido
+     * @param registado true se o autor estiver registado na base
+     */
+    void referenciaAdicionada(String orcid, boolean registado) {
+        referenciasPorOrcid.merge(orcid, 1, Integer::sum);
+        if (!registado) {
+            referenciasPendentes++;
+        }
+    }
+
+    /**
+     * Regista a remoção de uma referência de um artigo da base a um autor.
+     *
+     * @param orcid     o ORCID do autor referido
+     * @param registado true se o autor estiver registado na base
+     */
+    void referenciaRemovida(String orcid, boolean registado) {
+        Integer total = referenciasPorOrcid.get(orcid);
+        if (total == null) return;
+        if (total == 1) {
+            referenciasPorOrcid.remove(orcid);
+        } else {
+            referenciasPorOrcid.put(orcid, total - 1);
+        }
+        if (!registado) {
+            referenciasPendentes--;
+        }
+    }
+
+    /**
+     * Regista que um ORCID passou a estar registado na base, resolvendo as referências pendentes a ele.
+     *
+     * @param orcid o ORCID registado
+     */
+    void autorRegistado(String orcid) {
+        referenciasPendentes -= referenciasPorOrcid.getOrDefault(orcid, 0);
+    }
+
+    /**
+     * Regista que um ORCID deixou de estar registado na base, tornando pendentes as referências a ele.
+     *
+     * @param orcid o ORCID removido
+     */
+    void autorRemovido(String orcid) {
+        referenciasPendentes += referenciasPorOrcid.getOrDefault(orcid, 0);
+    }
+
+    /**
+     * Obtém o número de referências a autores não registados.
+     *
+     * @return o número de referências pendentes
+     */
+    long getReferenciasPendentes() {
+        return referenciasPendentes;
+    }
+
+    /**
+     * Verifica se todas as referências a autores estão resolvidas.
+     *
+     * @return true se não existirem referências pendentes
+     */
+    boolean consistente() {
+        return referenciasPendentes == 0;
+    }
+}
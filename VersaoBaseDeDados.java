@@ -0,0 +1,244 @@
+package Projeto;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Vista só de leitura de uma base de dados num instante, obtida com {@link BaseDeDados#abrirSnapshot()}.
+ * Os índices da versão são árvores persistentes partilhadas com a base: abrir uma versão custa O(1), as alterações
+ * posteriores à base não a afetam e uma versão nunca bloqueia nem é bloqueada pelas escritas. Cada alteração é
+ * publicada por inteiro, pelo que uma edição nunca é vista a meio (sem o artigo antigo e sem o novo).
+ *
+ * <p>A versão fixa quais os artigos e autores que existem, a forma como estão indexados e os autores de cada artigo.
+ * Os próprios objetos {@link Artigo} e {@link Autor} são partilhados com a base, pelo que as restantes alterações
+ * feitas diretamente a um desses objetos (por exemplo, o registo de visualizações de um artigo) são visíveis também
+ * na versão. Em particular, os autores de um artigo na versão são dados por {@link #autoresDoArtigo(String)}, e não
+ * por {@link Artigo#getAutores()}, que devolve os autores atuais.</p>
+ *
+ * <p>Uma versão não precisa de ser fechada: deixa de ocupar memória quando deixa de ser referenciada.</p>
+ */
+public final class VersaoBaseDeDados {
+    private final long numero;
+    private final ArvorePersistente<ChaveTemporal, Artigo> artigosPorData;
+    private final ArvorePersistente<String, Autor> autoresPorNome;
+    private final ArvorePersistente<String, Artigo> artigosPorTitulo;
+    private final ArvorePersistente<String, Autor> autoresPorID;
+    private final ArvorePersistente<String, ArvorePersistente<ChaveTemporal, Artigo>> artigosPorAutor;
+    private final ArvorePersistente<String, List<Autor>> autoresPorArtigo;
+
+    /**
+     * Construtor da classe VersaoBaseDeDados.
+     *
+     * @param numero           o número da versão, crescente a cada alteração publicada
+     * @param artigosPorData   os artigos por chave temporal
+     * @param autoresPorNome   os autores por chave de nome
+     * @param artigosPorTitulo os artigos por título
+     * @param autoresPorID     os autores por ORCID
+     * @param artigosPorAutor  os artigos de cada autor, por ORCID e chave temporal
+     * @param autoresPorArtigo os autores de cada artigo, por título
+     */
+    VersaoBaseDeDados(long numero,
+                      ArvorePersistente<ChaveTemporal, Artigo> artigosPorData,
+                      ArvorePersistente<String, Autor> autoresPorNome,
+                      ArvorePersistente<String, Artigo> artigosPorTitulo,
+                      ArvorePersistente<String, Autor> autoresPorID,
+                      ArvorePersistente<String, ArvorePersistente<ChaveTemporal, Artigo>> artigosPorAutor,
+                      ArvorePersistente<String, List<Autor>> autoresPorArtigo) {
+        this.numero = numero;
+        this.artigosPorData = artigosPorData;
+        this.autoresPorNome = autoresPorNome;
+        this.artigosPorTitulo = artigosPorTitulo;
+        this.autoresPorID = autoresPorID;
+        this.artigosPorAutor = artigosPorAutor;
+        this.autoresPorArtigo = autoresPorArtigo;
+    }
+
+    /**
+     * Obtém o número da versão. Versões abertas mais tarde têm números maiores ou iguais.
+     *
+     * @return o número da versão
+     */
+    public long getNumero() {
+        return numero;
+    }
+
+    /**
+     * Obtém o número de artigos da versão.
+     *
+     * @return o número de artigos
+     */
+    public int numeroArtigos() {
+        return artigosPorData.tamanho();
+    }
+
+    /**
+     * Obtém o número de autores registados na versão.
+     *
+     * @return o número de autores
+     */
+    public int numeroAutores() {
+        return autoresPorID.tamanho();
+    }
+
+    /**
+     * Lista todos os artigos da versão, por ordem de data.
+     *
+     * @return uma lista que contém todos os artigos
+     */
+    public List<Artigo> listarArtigos() {
+        return artigosPorData.valores();
+    }
+
+    /**
+     * Lista os artigos publicados num período, por ordem de data.
+     *
+     * @param inicio a data de início do período
+     * @param fim    a data de fim do período
+     * @return uma lista com os artigos do período
+     */
+    public List<Artigo> listarArtigos(Date inicio, Date fim) {
+        if (inicio.after(fim)) {
+            return new ArrayList<>();
+        }
+        return artigosPorData.valores(ChaveTemporal.inicio(inicio), ChaveTemporal.fim(fim));
+    }
+
+    /**
+     * Lista todos os autores registados na versão, por ordem de nome.
+     *
+     * @return uma lista que contém todos os autores
+     */
+    public List<Autor> listarAutores() {
+        return autoresPorNome.valores();
+    }
+
+    /**
+     * Procura um artigo pelo seu título.
+     *
+     * @param titulo o título do artigo a ser procurado
+     * @return o artigo encontrado ou null se não encontrado
+     */
+    public Artigo procurarArtigoPorTitulo(String titulo) {
+        return titulo == null ? null : artigosPorTitulo.obter(titulo);
+    }
+
+    /**
+     * Obtém os autores de um artigo da versão, tal como estavam no instante da versão.
+     *
+     * @param titulo o título do artigo
+     * @return uma lista só de leitura com os autores do artigo, ou uma lista vazia se o artigo não estiver na versão
+     */
+    public List<Autor> autoresDoArtigo(String titulo) {
+        List<Autor> autores = titulo == null ? null : autoresPorArtigo.obter(titulo);
+        return autores == null ? Collections.emptyList() : autores;
+    }
+
+    /**
+     * Procura um autor pelo seu ORCID.
+     *
+     * @param orcid o ORCID do autor a ser procurado
+     * @return o autor encontrado ou null se não encontrado
+     */
+    public Autor procurarAutorPorID(String orcid) {
+        return orcid == null ? null : autoresPorID.obter(orcid);
+    }
+
+    /**
+     * Busca todos os artigos escritos por um autor em um dado período.
+     *
+     * @param orcid  ORCID do autor.
+     * @param inicio Data de início do período.
+     * @param fim    Data de fim do período.
+     * @return Lista de artigos escritos pelo autor no período especificado, ordenada por data.
+     */
+    public List<Artigo> artigosAutorPorPeriodo(String orcid, Date inicio, Date fim) {
+        ArvorePersistente<ChaveTemporal, Artigo> artigosDoAutor = orcid == null ? null : artigosPorAutor.obter(orcid);
+        if (artigosDoAutor == null || inicio.after(fim)) {
+            return new ArrayList<>();
+        }
+        return artigosDoAutor.valores(ChaveTemporal.inicio(inicio), ChaveTemporal.fim(fim));
+    }
+
+    /**
+     * Retorna uma lista de artigos que não foram visualizados nem descarregados durante o período especificado.
+     *
+     * @param inicio a data de início do período.
+     * @param fim a data de término do período.
+     * @return uma lista de artigos que não foram visualizados nem descarregados no período especificado.
+     */
+    public List<Artigo> artigosNaoDescarregadosVizualizadosPorPeriodo(Date inicio, Date fim) {
+        return BaseDeDados.artigosSemUso(listarArtigos(inicio, fim), inicio, fim);
+    }
+
+    /**
+     * Este método retorna os três artigos mais utilizados durante um período específico, considerando visualizações
+     * e downloads desses artigos.
+     *
+     * @param inicio data de início do período
+     * @param fim data de fim do período
+     * @return uma lista contendo até três artigos mais utilizados durante o período especificado
+     */
+    public List<Artigo> top3ArtigosMaisUsadosPorPeriodo(Date inicio, Date fim) {
+        return topK(inicio, fim, 3, MetricaUso.VISUALIZACOES_E_DOWNLOADS);
+    }
+
+    /**
+     * Retorna os k artigos publicados num período com maior valor de uma métrica de uso nesse período,
+     * com os mesmos critérios de {@link BaseDeDados#topK(Date, Date, int, MetricaUso)}.
+     *
+     * @param inicio  data de início do período
+     * @param fim     data de fim do período
+     * @param k       o número máximo de artigos a devolver
+     * @param metrica a métrica de uso a considerar
+     * @return uma lista com até k artigos com uso no período, do mais para o menos utilizado
+     */
+    public List<Artigo> topK(Date inicio, Date fim, int k, MetricaUso metrica) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k não pode ser negativo: " + k);
+        }
+        if (inicio.after(fim) || k == 0) {
+            return new ArrayList<>();
+        }
+        List<ChaveTemporal> chaves = new ArrayList<>();
+        List<Artigo> artigos = new ArrayList<>();
+        artigosPorData.percorrer(ChaveTemporal.inicio(inicio), ChaveTemporal.fim(fim), (chave, artigo) -> {
+            chaves.add(chave);
+            artigos.add(artigo);
+        });
+        if (artigos.size() < SelecaoTopK.LIMIAR_PARALELO) {
+            SelecaoTopK selecao = new SelecaoTopK(k);
+            for (int i = 0; i < artigos.size(); i++) {
+                selecao.considerar(artigos.get(i), chaves.get(i), metrica.avaliar(artigos.get(i), inicio, fim));
+            }
+            return selecao.resultado();
+        }
+        return IntStream.range(0, artigos.size()).parallel().collect(
+                () -> new SelecaoTopK(k),
+                (selecao, i) -> selecao.considerar(artigos.get(i), chaves.get(i),
+                        metrica.avaliar(artigos.get(i), inicio, fim)),
+                SelecaoTopK::juntar).resultado();
+    }
+
+    /**
+     * Constrói o grafo de citações dos artigos da versão.
+     *
+     * @return o grafo de citações
+     */
+    GrafoArtigos construirGrafoArtigos() {
+        return ConstrutorGrafos.construirGrafoArtigos(listarArtigos());
+    }
+
+    /**
+     * Constrói o grafo de colaborações dos autores da versão, com os autores de cada artigo no instante da versão.
+     *
+     * @return o grafo de colaborações
+     */
+    GrafoAutores construirGrafoAutores() {
+        List<Artigo> artigos = listarArtigos();
+        List<List<Autor>> autoresArtigos = new ArrayList<>(artigos.size());
+        for (Artigo artigo : artigos) {
+            autoresArtigos.add(autoresDoArtigo(artigo.getTitulo()));
+        }
+        return ConstrutorGrafos.construirGrafoAutores(artigos, autoresArtigos, listarAutores());
+    }
+}
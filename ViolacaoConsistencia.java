@@ -0,0 +1,48 @@
+package Projeto;
+
+/**
+ * Representa uma referência de um artigo a um autor que não está registado na base de dados.
+ */
+public class ViolacaoConsistencia {
+    private final Artigo artigo;
+    private final String orcid;
+
+    /**
+     * Construtor da classe ViolacaoConsistencia.
+     *
+     * @param artigo o artigo com a referência inválida
+     * @param orcid  o ORCID do autor em falta
+     */
+    public ViolacaoConsistencia(Artigo artigo, String orcid) {
+        this.artigo = artigo;
+        this.orcid = orcid;
+    }
+
+    /**
+     * Obtém o artigo com a referência inválida.
+     *
+     * @return o artigo
+     */
+    public Artigo getArtigo() {
+        return artigo;
+    }
+
+    /**
+     * Obtém o ORCID do autor em falta.
+     *
+     * @return o ORCID
+     */
+    public String getOrcid() {
+        return orcid;
+    }
+
+    /**
+     * Retorna uma representação em string da violação.
+     *
+     * @return uma string com o título do artigo e o ORCID em falta
+     */
+    @Override
+    public String toString() {
+        return "ViolacaoConsistencia{" + "artigo:" + artigo.getTitulo() + "\t" + "orcid:" + orcid + '}';
+    }
+}